@@ -27,6 +27,11 @@ public class SecurityConfig {
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeExchange(exchanges -> exchanges
+                        // réservation de stock : appel interne order-service -> product-service uniquement
+                        .pathMatchers(
+                                "/product-service/products/reserve/**",
+                                "/product-service/products/release/**"
+                        ).denyAll()
                         .pathMatchers(
                                 "/swagger-ui.html",
                                 "/swagger-ui/**",
@@ -0,0 +1,39 @@
+package org.example.gatewayservice.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Response stored by the {@link ResponseCacheFilter}: fresh for {@code ttlNanos}
+ * after {@code storedAt}, then served stale for {@code staleNanos} more while it
+ * is revalidated.
+ */
+record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body,
+                      long storedAt, long ttlNanos, long staleNanos) {
+
+    boolean isFresh(long now) {
+        return now - storedAt < ttlNanos;
+    }
+
+    long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1_000_000_000L);
+    }
+
+    long lifetimeNanos() {
+        return ttlNanos + staleNanos;
+    }
+
+    CachedResponse renewed(long now) {
+        return new CachedResponse(status, headers, body, now, ttlNanos, staleNanos);
+    }
+
+    int weight() {
+        int weight = body.length;
+        for (var header : headers.entrySet()) {
+            weight += header.getKey().length();
+            for (String value : header.getValue())
+                weight += value.length();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,418 @@
+package org.example.gatewayservice.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches GET responses of the routes matching {@code gateway-cache.paths} in memory,
+ * so catalog reads stop reaching the services. Paths matching
+ * {@code gateway-cache.excluded-paths} are never cached, even if they also match.
+ * <p>
+ * Only {@code 200} responses without {@code Set-Cookie} are stored, and only when
+ * their {@code Cache-Control} allows a shared cache to: no {@code no-store},
+ * {@code private} or {@code no-cache}, and {@code public} (or {@code s-maxage}) when
+ * the request carried an {@code Authorization} header. They stay fresh for
+ * {@code s-maxage}, {@code max-age} or {@code gateway-cache.default-ttl}, capped at
+ * {@code gateway-cache.max-ttl}. Responses are keyed by URI and by the request
+ * headers named in their {@code Vary}; {@code Vary: *} is never stored. A request
+ * sent with {@code no-cache} or {@code no-store} goes to the service.
+ * <p>
+ * Once stale, an entry is still served for {@code stale-while-revalidate} (from the
+ * response, else {@code gateway-cache.stale-while-revalidate}) while a single
+ * background request through the gateway itself refreshes it, conditionally when
+ * the entry has an {@code ETag}. The cache is bounded to {@code gateway-cache.max-size}
+ * bytes; larger bodies than {@code gateway-cache.max-entry-size} are not stored.
+ * <p>
+ * Lookups are counted as {@code gateway.cache.requests} tagged by route and result
+ * ({@code hit}, {@code stale}, {@code miss}, {@code bypass}, {@code revalidate}), and served responses
+ * carry an {@code X-Cache} header. A cached response whose {@code ETag} matches the
+ * request's {@code If-None-Match} is answered {@code 304} without a body.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+    static final String REVALIDATE_HEADER = "X-Gateway-Cache-Revalidate";
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.TRANSFER_ENCODING, HttpHeaders.PROXY_AUTHENTICATE,
+            HttpHeaders.TRAILER, HttpHeaders.UPGRADE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE,
+            HttpHeaders.AGE, CACHE_STATUS_HEADER);
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private final List<PathPattern> cachedPaths;
+    private final List<PathPattern> excludedPaths;
+    private final long maxEntryBytes;
+    private final long defaultTtlNanos;
+    private final long maxTtlNanos;
+    private final long staleWhileRevalidateNanos;
+    private final Ticker ticker;
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, CachedResponse> responses;
+    // URI -> en-têtes de requête nommés par le Vary de la dernière réponse stockée
+    private final Cache<String, List<String>> varyByUri;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    // Jeton propre à l'instance : seules nos requêtes de revalidation forcent un rafraîchissement
+    private final String revalidateToken = UUID.randomUUID().toString();
+    private volatile int port;
+
+    @Autowired
+    public ResponseCacheFilter(@Value("${gateway-cache.paths:}") List<String> cachedPaths,
+                               @Value("${gateway-cache.excluded-paths:}") List<String> excludedPaths,
+                               @Value("${gateway-cache.max-size:64MB}") DataSize maxSize,
+                               @Value("${gateway-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                               @Value("${gateway-cache.default-ttl:30s}") Duration defaultTtl,
+                               @Value("${gateway-cache.max-ttl:10m}") Duration maxTtl,
+                               @Value("${gateway-cache.stale-while-revalidate:30s}") Duration staleWhileRevalidate,
+                               WebClient.Builder webClientBuilder,
+                               MeterRegistry meterRegistry) {
+        this(cachedPaths, excludedPaths, maxSize, maxEntrySize, defaultTtl, maxTtl, staleWhileRevalidate,
+                webClientBuilder.build(), meterRegistry, Ticker.systemTicker());
+    }
+
+    ResponseCacheFilter(List<String> cachedPaths, List<String> excludedPaths, DataSize maxSize,
+                        DataSize maxEntrySize, Duration defaultTtl, Duration maxTtl, Duration staleWhileRevalidate,
+                        WebClient webClient, MeterRegistry meterRegistry, Ticker ticker) {
+        this.cachedPaths = parse(cachedPaths);
+        this.excludedPaths = parse(excludedPaths);
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.defaultTtlNanos = defaultTtl.toNanos();
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.staleWhileRevalidateNanos = staleWhileRevalidate.toNanos();
+        this.ticker = ticker;
+        this.webClient = webClient;
+        this.meterRegistry = meterRegistry;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.lifetimeNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                                  long currentDuration) {
+                        return response.lifetimeNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.varyByUri = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(maxTtl.plus(staleWhileRevalidate))
+                .ticker(ticker)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway-responses");
+        Gauge.builder("gateway.cache.size", responses, cache -> cache.policy().eviction()
+                        .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                        .orElse(0L))
+                .description("Bytes held by the gateway response cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (event.getApplicationContext().getServerNamespace() == null)
+            port = event.getWebServer().getPort();
+    }
+
+    @Override
+    public int getOrder() {
+        // Avant NettyWriteResponseFilter pour intercepter le corps qu'il écrit
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || !isCached(request))
+            return chain.filter(exchange);
+        String route = routeId(exchange);
+        Map<String, String> requestDirectives = directives(request.getHeaders().get(HttpHeaders.CACHE_CONTROL));
+        if (requestDirectives.containsKey("no-store")) {
+            count(route, "bypass");
+            return chain.filter(exchange);
+        }
+
+        String uri = uri(request);
+        String key = key(uri, request.getHeaders());
+        boolean revalidation = revalidateToken.equals(request.getHeaders().getFirst(REVALIDATE_HEADER));
+        CachedResponse cached = responses.getIfPresent(key);
+        if (!revalidation && cached != null && !requestDirectives.containsKey("no-cache")
+                && !"0".equals(requestDirectives.get("max-age"))) {
+            long now = ticker.read();
+            if (cached.isFresh(now)) {
+                count(route, "hit");
+                return write(request, exchange.getResponse(), cached, "HIT", now);
+            }
+            count(route, "stale");
+            revalidate(key, uri, cached, request.getHeaders());
+            return write(request, exchange.getResponse(), cached, "STALE", now);
+        }
+
+        count(route, revalidation ? "revalidate" : "miss");
+        ServerHttpRequest forwarded = request.mutate()
+                .headers(headers -> headers.remove(REVALIDATE_HEADER))
+                .build();
+        CachingResponse response = new CachingResponse(exchange.getResponse(), uri, request.getHeaders());
+        return chain.filter(exchange.mutate().request(forwarded).response(response).build())
+                .then(Mono.fromRunnable(() -> {
+                    // 304 sur une revalidation conditionnelle : l'entrée est toujours valable
+                    if (revalidation && cached != null && is(response.getStatusCode(), HttpStatus.NOT_MODIFIED))
+                        responses.put(key, cached.renewed(ticker.read()));
+                }));
+    }
+
+    private boolean isCached(ServerHttpRequest request) {
+        return cachedPaths.stream().anyMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()))
+                && excludedPaths.stream().noneMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()));
+    }
+
+    private Mono<Void> write(ServerHttpRequest request, ServerHttpResponse response, CachedResponse cached,
+                             String cacheStatus, long now) {
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        // Le client a déjà cette version : 304 sans corps
+        if (matches(request.getHeaders().getIfNoneMatch(), cached.headers().getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Weak comparison of {@code If-None-Match} against the stored {@code ETag}, as
+     * required for {@code GET}: {@code W/"1"} matches {@code "1"}.
+     */
+    static boolean matches(List<String> ifNoneMatch, String etag) {
+        if (etag == null)
+            return false;
+        for (String candidate : ifNoneMatch)
+            if (candidate.equals("*") || opaque(candidate).equals(opaque(etag)))
+                return true;
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Refreshes a stale entry in the background by replaying the request through
+     * the gateway, at most once at a time per entry.
+     */
+    private void revalidate(String key, String uri, CachedResponse cached, HttpHeaders requestHeaders) {
+        if (port <= 0 || !revalidating.add(key))
+            return;
+        List<String> vary = varyByUri.getIfPresent(uri);
+        webClient.get()
+                .uri(URI.create("http://localhost:" + port + uri))
+                .headers(headers -> {
+                    copy(requestHeaders, headers, HttpHeaders.AUTHORIZATION);
+                    copy(requestHeaders, headers, HttpHeaders.ACCEPT);
+                    if (vary != null)
+                        vary.forEach(name -> copy(requestHeaders, headers, name));
+                    if (cached.headers().getETag() != null)
+                        headers.setIfNoneMatch(cached.headers().getETag());
+                    headers.set(REVALIDATE_HEADER, revalidateToken);
+                })
+                .retrieve()
+                .toBodilessEntity()
+                .doFinally(signal -> revalidating.remove(key))
+                .subscribe(entity -> {
+                }, e -> log.debug("Revalidation of {} failed: {}", uri, e.toString()));
+    }
+
+    private void store(String uri, HttpHeaders requestHeaders, HttpStatusCode status, HttpHeaders responseHeaders,
+                       byte[] body) {
+        if (!is(status, HttpStatus.OK) || body.length > maxEntryBytes || responseHeaders.containsKey(HttpHeaders.SET_COOKIE))
+            return;
+        Map<String, String> directives = directives(responseHeaders.get(HttpHeaders.CACHE_CONTROL));
+        if (directives.containsKey("no-store") || directives.containsKey("private") || directives.containsKey("no-cache"))
+            return;
+        if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+                && !directives.containsKey("public") && !directives.containsKey("s-maxage"))
+            return;
+        List<String> vary = new ArrayList<>();
+        for (String value : responseHeaders.getVary())
+            for (String name : value.split(","))
+                if (!name.isBlank())
+                    vary.add(name.trim().toLowerCase(Locale.ROOT));
+        if (vary.contains("*"))
+            return;
+        long ttl = Math.min(seconds(directives.getOrDefault("s-maxage", directives.get("max-age")), defaultTtlNanos),
+                maxTtlNanos);
+        if (ttl <= 0)
+            return;
+        long stale = seconds(directives.get("stale-while-revalidate"), staleWhileRevalidateNanos);
+
+        HttpHeaders stored = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (UNSTORED_HEADERS.stream().noneMatch(name::equalsIgnoreCase))
+                stored.put(name, List.copyOf(values));
+        });
+        Collections.sort(vary);
+        varyByUri.put(uri, List.copyOf(vary));
+        responses.put(key(uri, vary, requestHeaders), new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(stored),
+                body, ticker.read(), ttl, stale));
+    }
+
+    private String key(String uri, HttpHeaders requestHeaders) {
+        return key(uri, Objects.requireNonNullElse(varyByUri.getIfPresent(uri), List.of()), requestHeaders);
+    }
+
+    private static String key(String uri, List<String> vary, HttpHeaders requestHeaders) {
+        StringBuilder key = new StringBuilder(uri);
+        for (String name : vary)
+            key.append('\n').append(name).append('=').append(String.join(",", requestHeaders.getOrEmpty(name)));
+        return key.toString();
+    }
+
+    private void count(String route, String result) {
+        meterRegistry.counter("gateway.cache.requests", "route", route, "result", result).increment();
+    }
+
+    private static boolean is(HttpStatusCode status, HttpStatus expected) {
+        return status != null && status.value() == expected.value();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "none";
+    }
+
+    private static String uri(ServerHttpRequest request) {
+        URI uri = request.getURI();
+        return uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+    }
+
+    private static void copy(HttpHeaders from, HttpHeaders to, String name) {
+        List<String> values = from.get(name);
+        if (values != null)
+            to.put(name, values);
+    }
+
+    static Map<String, String> directives(List<String> cacheControl) {
+        Map<String, String> directives = new HashMap<>();
+        if (cacheControl == null)
+            return directives;
+        for (String value : cacheControl) {
+            for (String directive : value.split(",")) {
+                String[] parts = directive.trim().split("=", 2);
+                if (!parts[0].isEmpty())
+                    directives.put(parts[0].toLowerCase(Locale.ROOT),
+                            parts.length > 1 ? parts[1].trim().replace("\"", "") : "");
+            }
+        }
+        return directives;
+    }
+
+    private static long seconds(String value, long defaultNanos) {
+        if (value == null)
+            return defaultNanos;
+        try {
+            return Duration.ofSeconds(Long.parseLong(value)).toNanos();
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static List<PathPattern> parse(List<String> patterns) {
+        return patterns.stream()
+                .filter(pattern -> !pattern.isBlank())
+                .map(pattern -> PathPatternParser.defaultInstance.parse(pattern.trim()))
+                .toList();
+    }
+
+    /**
+     * Keeps a copy of the body it writes, and stores it once complete if the
+     * response is cacheable.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String uri;
+        private final HttpHeaders requestHeaders;
+
+        CachingResponse(ServerHttpResponse delegate, String uri, HttpHeaders requestHeaders) {
+            super(delegate);
+            this.uri = uri;
+            this.requestHeaders = requestHeaders;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (!is(status, HttpStatus.OK) || getHeaders().getContentLength() > maxEntryBytes)
+                return super.writeWith(body);
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        store(uri, requestHeaders, status, getHeaders(), bytes);
+                        getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+    }
+}
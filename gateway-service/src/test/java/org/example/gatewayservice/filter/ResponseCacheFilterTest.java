@@ -0,0 +1,206 @@
+package org.example.gatewayservice.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ResponseCacheFilter Tests")
+class ResponseCacheFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger originCalls = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(List.of("/product-service/products/**"), List.of("/order-service/**"),
+                DataSize.ofKilobytes(64), DataSize.ofKilobytes(8), Duration.ofSeconds(30), Duration.ofMinutes(10),
+                Duration.ofSeconds(30), WebClient.create(), meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should serve a public catalog response from the cache")
+    void testFilter_Hit() {
+        Consumer<HttpHeaders> origin = headers -> headers.setCacheControl("public, max-age=60");
+
+        MockServerWebExchange first = get("/product-service/products?page=0", origin);
+        MockServerWebExchange second = get("/product-service/products?page=0", origin);
+
+        assertEquals(1, originCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals("public, max-age=60", second.getResponse().getHeaders().getCacheControl());
+        assertEquals("body 1", second.getResponse().getBodyAsString().block());
+        assertEquals(1.0, meterRegistry.counter("gateway.cache.requests", "route", "none", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("gateway.cache.requests", "route", "none", "result", "miss").count());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without a body when If-None-Match matches the cached ETag")
+    void testFilter_HitNotModified() {
+        Consumer<HttpHeaders> origin = headers -> {
+            headers.setCacheControl("public, max-age=60");
+            headers.setETag("\"v1\"");
+        };
+        get("/product-service/products/1", origin);
+
+        MockServerWebExchange matching = filter(MockServerHttpRequest.get("/product-service/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v0\", W/\"v1\""), origin);
+        MockServerWebExchange other = filter(MockServerHttpRequest.get("/product-service/products/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v0\""), origin);
+
+        assertEquals(1, originCalls.get());
+        assertEquals(HttpStatus.NOT_MODIFIED, matching.getResponse().getStatusCode());
+        assertEquals("\"v1\"", matching.getResponse().getHeaders().getETag());
+        assertEquals("HIT", matching.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("", matching.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(HttpStatus.OK, other.getResponse().getStatusCode());
+        assertEquals("body 1", other.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Should never cache excluded or unconfigured paths")
+    void testFilter_NotCachedPaths() {
+        Consumer<HttpHeaders> origin = headers -> headers.setCacheControl("public, max-age=60");
+
+        get("/order-service/orders/myOrders", origin);
+        get("/order-service/orders/myOrders", origin);
+        get("/product-service/stock", origin);
+        get("/product-service/stock", origin);
+
+        assertEquals(4, originCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should not store responses a shared cache must not keep")
+    void testFilter_NotStorable() {
+        get("/product-service/products/1", headers -> headers.setCacheControl("private, max-age=60"));
+        get("/product-service/products/1", headers -> headers.setCacheControl("private, max-age=60"));
+        get("/product-service/products/2", headers -> headers.setCacheControl("no-store"));
+        get("/product-service/products/2", headers -> headers.setCacheControl("no-store"));
+        get("/product-service/products/3", headers -> headers.set(HttpHeaders.VARY, "*"));
+        get("/product-service/products/3", headers -> headers.set(HttpHeaders.VARY, "*"));
+
+        assertEquals(6, originCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should only share responses to authenticated requests when marked public")
+    void testFilter_Authorization() {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/product-service/products/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token");
+
+        filter(request, headers -> headers.setCacheControl("max-age=60"));
+        filter(request, headers -> headers.setCacheControl("max-age=60"));
+        assertEquals(2, originCalls.get());
+
+        filter(request, headers -> headers.setCacheControl("public, max-age=60"));
+        filter(request, headers -> headers.setCacheControl("public, max-age=60"));
+        assertEquals(3, originCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should keep one entry per value of the headers named in Vary")
+    void testFilter_Vary() {
+        Consumer<HttpHeaders> origin = headers -> {
+            headers.setCacheControl("public, max-age=60");
+            headers.set(HttpHeaders.VARY, "Accept");
+        };
+
+        filter(MockServerHttpRequest.get("/product-service/products/1").header(HttpHeaders.ACCEPT, "application/json"), origin);
+        filter(MockServerHttpRequest.get("/product-service/products/1").header(HttpHeaders.ACCEPT, "application/x-jackson-smile"), origin);
+        MockServerWebExchange json = filter(MockServerHttpRequest.get("/product-service/products/1")
+                .header(HttpHeaders.ACCEPT, "application/json"), origin);
+
+        assertEquals(2, originCalls.get());
+        assertEquals("body 1", json.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Should serve stale content within the stale-while-revalidate window only")
+    void testFilter_StaleWhileRevalidate() {
+        Consumer<HttpHeaders> origin = headers -> headers.setCacheControl("public, max-age=10, stale-while-revalidate=20");
+        get("/product-service/products/1", origin);
+
+        clock.addAndGet(Duration.ofSeconds(15).toNanos());
+        MockServerWebExchange stale = get("/product-service/products/1", origin);
+        assertEquals(1, originCalls.get());
+        assertEquals("STALE", stale.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("15", stale.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        get("/product-service/products/1", origin);
+        assertEquals(2, originCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should go to the service when the client asks for no-cache and refresh the entry")
+    void testFilter_RequestNoCache() {
+        Consumer<HttpHeaders> origin = headers -> headers.setCacheControl("public, max-age=60");
+        get("/product-service/products/1", origin);
+
+        filter(MockServerHttpRequest.get("/product-service/products/1").header(HttpHeaders.CACHE_CONTROL, "no-cache"), origin);
+        MockServerWebExchange cached = get("/product-service/products/1", origin);
+
+        assertEquals(2, originCalls.get());
+        assertEquals("body 2", cached.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Should not store bodies larger than the entry limit")
+    void testFilter_EntryTooLarge() {
+        Consumer<HttpHeaders> origin = headers -> headers.setCacheControl("public, max-age=60");
+        String large = "x".repeat(10_000);
+
+        filter(MockServerHttpRequest.get("/product-service/products"), origin, large);
+        filter(MockServerHttpRequest.get("/product-service/products"), origin, large);
+
+        assertEquals(2, originCalls.get());
+    }
+
+    private MockServerWebExchange get(String uri, Consumer<HttpHeaders> origin) {
+        return filter(MockServerHttpRequest.get(uri), origin);
+    }
+
+    private MockServerWebExchange filter(MockServerHttpRequest.BaseBuilder<?> request, Consumer<HttpHeaders> origin) {
+        return filter(request, origin, null);
+    }
+
+    private MockServerWebExchange filter(MockServerHttpRequest.BaseBuilder<?> request, Consumer<HttpHeaders> origin,
+                                         String body) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain chain = forwarded -> {
+            String payload = body != null ? body : "body " + originCalls.incrementAndGet();
+            if (body != null)
+                originCalls.incrementAndGet();
+            ServerHttpResponse response = forwarded.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            origin.accept(response.getHeaders());
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(payload.getBytes(StandardCharsets.UTF_8))));
+        };
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
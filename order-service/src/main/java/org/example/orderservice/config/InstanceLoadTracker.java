@@ -0,0 +1,144 @@
+package org.example.orderservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks, per product-service instance, the requests in flight and an exponentially
+ * weighted moving average of their latency ({@code product-client.load-balancer.ewma-alpha}),
+ * from the load-balancer lifecycle callbacks of the Feign client.
+ * <p>
+ * A failed request (I/O error or 5xx) counts at least {@code slow-latency} in the
+ * average. An instance is ejected for {@code ejection-duration} after
+ * {@code max-consecutive-failures} failures in a row, or once its average reaches
+ * {@code slow-latency}; it then comes back with a fresh average.
+ */
+@Slf4j
+public class InstanceLoadTracker implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final ConcurrentMap<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+    private final double alpha;
+    private final long initialLatencyNanos;
+    private final int maxConsecutiveFailures;
+    private final long slowLatencyNanos;
+    private final long ejectionNanos;
+    private final LongSupplier ticker;
+
+    public InstanceLoadTracker(double alpha, Duration initialLatency, int maxConsecutiveFailures,
+                               Duration slowLatency, Duration ejectionDuration) {
+        this(alpha, initialLatency, maxConsecutiveFailures, slowLatency, ejectionDuration, System::nanoTime);
+    }
+
+    InstanceLoadTracker(double alpha, Duration initialLatency, int maxConsecutiveFailures,
+                        Duration slowLatency, Duration ejectionDuration, LongSupplier ticker) {
+        this.alpha = alpha;
+        this.initialLatencyNanos = initialLatency.toNanos();
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+        this.slowLatencyNanos = slowLatency.toNanos();
+        this.ejectionNanos = ejectionDuration.toNanos();
+        this.ticker = ticker;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer())
+            return;
+        if (request.getContext() != null)
+            request.getContext().setRequestStartTime(ticker.getAsLong());
+        load(lbResponse.getServer()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer())
+            return;
+        ServiceInstance instance = lbResponse.getServer();
+        long now = ticker.getAsLong();
+        RequestDataContext context = completionContext.getLoadBalancerRequest().getContext();
+        long latency = context != null && context.getRequestStartTime() > 0
+                ? now - context.getRequestStartTime() : initialLatencyNanos;
+        ResponseData response = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+        load(instance).complete(instance, latency, failed, now);
+    }
+
+    /**
+     * Expected cost of sending one more request to the instance: its average
+     * latency scaled by the requests it already has in flight.
+     */
+    public double cost(ServiceInstance instance) {
+        return load(instance).cost();
+    }
+
+    public boolean isEjected(ServiceInstance instance) {
+        return load(instance).isEjected(ticker.getAsLong());
+    }
+
+    private InstanceLoad load(ServiceInstance instance) {
+        return loads.computeIfAbsent(instance.getHost() + ":" + instance.getPort(), key -> new InstanceLoad());
+    }
+
+    private class InstanceLoad {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos = initialLatencyNanos;
+        private int consecutiveFailures;
+        private long ejectedUntil;
+        private boolean ejected;
+
+        synchronized double cost() {
+            return ewmaNanos * (inFlight.get() + 1);
+        }
+
+        synchronized boolean isEjected(long now) {
+            if (ejected && now - ejectedUntil >= 0) {
+                // Fin de l'éjection : l'instance repart avec une moyenne neuve
+                ejected = false;
+                ewmaNanos = initialLatencyNanos;
+                consecutiveFailures = 0;
+            }
+            return ejected;
+        }
+
+        void complete(ServiceInstance instance, long latencyNanos, boolean failed, long now) {
+            inFlight.decrementAndGet();
+            synchronized (this) {
+                long sample = failed ? Math.max(latencyNanos, slowLatencyNanos) : latencyNanos;
+                ewmaNanos = alpha * sample + (1 - alpha) * ewmaNanos;
+                consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+                if (!ejected && (consecutiveFailures >= maxConsecutiveFailures || ewmaNanos >= slowLatencyNanos)) {
+                    ejected = true;
+                    ejectedUntil = now + ejectionNanos;
+                    log.warn("Ejecting {}:{} for {} ms: {} consecutive failures, average latency {} ms",
+                            instance.getHost(), instance.getPort(), ejectionNanos / 1_000_000,
+                            consecutiveFailures, (long) ewmaNanos / 1_000_000);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.orderservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.orderservice.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Local cache of products fetched from product-service. Entries expire
+ * {@code product-cache.ttl} after they were loaded and the cache is bounded to
+ * {@code product-cache.maximum-size} entries (W-TinyLFU eviction). Hit, miss and
+ * eviction counts are published as the {@code cache.*} meters tagged {@code cache=products}.
+ * <p>
+ * {@code productSnapshots} keeps the last version fetched of each product without
+ * expiry (bounded to {@code product-cache.snapshot-maximum-size} entries); it is only
+ * read when product-service cannot be reached.
+ */
+@Configuration
+public class ProductCacheConfig {
+
+    public static final String PRODUCT_CACHE = "products";
+    public static final String PRODUCT_SNAPSHOTS = "product-snapshots";
+
+    @Bean
+    public Cache<Long, Product> productCache(@Value("${product-cache.maximum-size:10000}") long maximumSize,
+                                             @Value("${product-cache.ttl:5m}") Duration ttl,
+                                             MeterRegistry meterRegistry) {
+        Cache<Long, Product> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, PRODUCT_CACHE);
+    }
+
+    @Bean
+    public Cache<Long, Product> productSnapshots(@Value("${product-cache.snapshot-maximum-size:10000}") long maximumSize,
+                                                 MeterRegistry meterRegistry) {
+        Cache<Long, Product> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, PRODUCT_SNAPSHOTS);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.orderservice.config;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Set;
+
+/**
+ * Wire format of the product-service responses ({@code product-client.wire-format}).
+ * With {@code smile} the Feign client asks for the binary Smile encoding of
+ * the same JSON documents, which is smaller and cheaper to decode, and still
+ * accepts JSON from an instance that cannot produce it; with {@code json} it
+ * leaves the default Accept header alone. Request bodies stay JSON.
+ * <p>
+ * Stock reservation and release are internal endpoints: they are called with
+ * the client-credentials token of {@code product-client.registration-id}
+ * (scope {@code stock:write}) instead of the relayed user token. So are calls
+ * made outside a user request, such as those of the asynchronous placement
+ * workers.
+ * <p>
+ * Instances are chosen by the load balancer of {@link ProductLoadBalancerConfig}
+ * unless {@code product-service.url} pins the client to a single address.
+ */
+@Configuration
+@LoadBalancerClient(name = "product-service", configuration = ProductLoadBalancerConfig.class)
+public class ProductClientConfig {
+
+    static final String SMILE_ACCEPT = "application/x-jackson-smile, application/json;q=0.9";
+    static final Set<String> SERVICE_PATHS = Set.of("/products/reserve", "/products/release");
+    static final String SERVICE_PRINCIPAL = "order-service";
+
+    @Bean
+    public RequestInterceptor wireFormatInterceptor(@Value("${product-client.wire-format:smile}") String wireFormat) {
+        boolean smile = "smile".equalsIgnoreCase(wireFormat);
+        return template -> {
+            if (smile && !template.headers().containsKey(HttpHeaders.ACCEPT))
+                template.header(HttpHeaders.ACCEPT, SMILE_ACCEPT);
+        };
+    }
+
+    @Bean
+    public OAuth2AuthorizedClientManager productServiceClientManager(ClientRegistrationRepository clientRegistrationRepository,
+                                                                     OAuth2AuthorizedClientService authorizedClientService) {
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager =
+                new AuthorizedClientServiceOAuth2AuthorizedClientManager(clientRegistrationRepository, authorizedClientService);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder().clientCredentials().build());
+        return manager;
+    }
+
+    @Bean
+    public RequestInterceptor serviceTokenInterceptor(OAuth2AuthorizedClientManager productServiceClientManager,
+                                                      @Value("${product-client.registration-id:product-service}") String registrationId) {
+        return template -> {
+            if (!SERVICE_PATHS.contains(template.path())
+                    && SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken)
+                return;
+            // le jeton est mis en cache par le manager jusqu'à son expiration
+            OAuth2AuthorizedClient client = productServiceClientManager.authorize(OAuth2AuthorizeRequest
+                    .withClientRegistrationId(registrationId)
+                    .principal(SERVICE_PRINCIPAL)
+                    .build());
+            if (client == null)
+                throw new IllegalStateException("No access token for client registration: " + registrationId);
+            template.removeHeader(HttpHeaders.AUTHORIZATION);
+            template.header(HttpHeaders.AUTHORIZATION, "Bearer " + client.getAccessToken().getTokenValue());
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Load balancer of the product-service client, resolving instances through the
+ * discovery client. Registered with {@code @LoadBalancerClient} on
+ * {@link ProductClientConfig}, so its beans live in the client's own context:
+ * it must not be a {@code @Configuration} picked up by component scanning.
+ */
+public class ProductLoadBalancerConfig {
+
+    @Bean
+    public InstanceLoadTracker instanceLoadTracker(
+            @Value("${product-client.load-balancer.ewma-alpha:0.3}") double alpha,
+            @Value("${product-client.load-balancer.initial-latency:50ms}") Duration initialLatency,
+            @Value("${product-client.load-balancer.max-consecutive-failures:3}") int maxConsecutiveFailures,
+            @Value("${product-client.load-balancer.slow-latency:1s}") Duration slowLatency,
+            @Value("${product-client.load-balancer.ejection-duration:30s}") Duration ejectionDuration) {
+        return new InstanceLoadTracker(alpha, initialLatency, maxConsecutiveFailures, slowLatency, ejectionDuration);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> productLoadBalancer(Environment environment,
+                                                                   LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                   InstanceLoadTracker instanceLoadTracker) {
+        String serviceId = LoadBalancerClientFactory.getName(environment);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, instanceLoadTracker);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor used to fan product-service calls out in parallel. Its size caps the
+ * number of in-flight calls ({@code product-client.max-concurrency}); the caller's
+ * security context is propagated so the Feign interceptor can still relay the JWT.
+ */
+@Configuration
+public class ProductLookupExecutorConfig {
+
+    @Bean
+    public ExecutorService productLookupExecutor(@Value("${product-client.max-concurrency:8}") int maxConcurrency) {
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrency,
+                new CustomizableThreadFactory("product-lookup-"));
+        return new DelegatingSecurityContextExecutorService(executor);
+    }
+}
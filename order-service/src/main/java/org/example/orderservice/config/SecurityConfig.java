@@ -47,6 +47,9 @@ public class SecurityConfig {
         return new RequestInterceptor() {
             @Override
             public void apply(RequestTemplate template) {
+                // déjà fourni par serviceTokenInterceptor (appels internes)
+                if (template.headers().containsKey("Authorization"))
+                    return;
                 Authentication authentication = SecurityContextHolder
                         .getContext()
                         .getAuthentication();
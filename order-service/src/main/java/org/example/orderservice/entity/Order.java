@@ -1,8 +1,11 @@
 package org.example.orderservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 import org.example.orderservice.entity.Enum.OrderStatus;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -15,33 +18,56 @@ import java.util.List;
 @Data
 @ToString(exclude = {"orderLines"})
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_id", columnList = "user_id"))
 public class Order {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     private Date date;
     private OrderStatus status;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Builder.Default
     private List<OrderLine> orderLines = new ArrayList<>();
 
     private String userId;
 
+    // Defaulted for rows that predate the column: a NULL version never matches "where version = ?"
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    // Kept in step with the lines so that totals can be read without loading them.
+    // The default fills rows that predate the column; OrderTotalBackfill then reconciles them.
+    @Column(name = "total_amount", nullable = false)
+    @ColumnDefault("0")
+    private double totalAmount;
+
     public void addOrderLine(OrderLine orderLine) {
         orderLine.setOrder(this);
         this.orderLines.add(orderLine);
+        this.totalAmount += orderLine.getLineTotal();
     }
 
 
     public void removeOrderLine(OrderLine orderLine) {
-        this.orderLines.remove(orderLine);
+        if (this.orderLines.remove(orderLine))
+            this.totalAmount -= orderLine.getLineTotal();
         orderLine.setOrder(null);
     }
 
 
-    public Double getTotalAmount() {
-        return this.orderLines.stream()
+    public void adjustTotalAmount(double delta) {
+        this.totalAmount += delta;
+    }
+
+
+    public void recalculateTotalAmount() {
+        this.totalAmount = this.orderLines.stream()
                 .mapToDouble(OrderLine::getLineTotal)
                 .sum();
     }
@@ -14,11 +14,12 @@ import org.example.orderservice.model.Product;
 @Table(name = "order_lines")
 public class OrderLine {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
     private Long id;
 
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
@@ -28,6 +29,8 @@ public class OrderLine {
     @Transient
     private Product product;
 
+    private String productName;
+
     @Column(nullable = false)
     private int quantity;
 
@@ -35,8 +38,13 @@ public class OrderLine {
     private Double unitPrice;
 
 
+    public void snapshot(Product product) {
+        this.productName = product.getName();
+        this.unitPrice = product.getPrice();
+    }
+
     public Double getLineTotal() {
-        return unitPrice * quantity;
+        return unitPrice == null ? 0.0 : unitPrice * quantity;
     }
 }
 
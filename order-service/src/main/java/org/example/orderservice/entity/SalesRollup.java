@@ -0,0 +1,23 @@
+package org.example.orderservice.entity;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantity sold and revenue of one product on one day, summed over the order lines.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sales_rollups")
+public class SalesRollup {
+    @EmbeddedId
+    private SalesRollupId id;
+    private long quantity;
+    private double revenue;
+}
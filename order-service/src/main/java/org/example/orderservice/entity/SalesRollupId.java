@@ -0,0 +1,21 @@
+package org.example.orderservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class SalesRollupId implements Serializable {
+    @Column(name = "sales_day")
+    private LocalDate day;
+    @Column(name = "product_id")
+    private Long productId;
+}
@@ -0,0 +1,11 @@
+package org.example.orderservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConcurrentOrderUpdateException extends RuntimeException {
+    public ConcurrentOrderUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
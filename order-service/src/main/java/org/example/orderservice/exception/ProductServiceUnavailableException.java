@@ -0,0 +1,11 @@
+package org.example.orderservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ProductServiceUnavailableException extends RuntimeException {
+    public ProductServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.orderservice.model;
+
+import java.time.LocalDate;
+
+/**
+ * Quantity sold and revenue of all products on one day.
+ */
+public interface DailySales {
+    LocalDate getDay();
+    Long getQuantity();
+    Double getRevenue();
+}
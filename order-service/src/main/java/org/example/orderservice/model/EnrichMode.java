@@ -0,0 +1,28 @@
+package org.example.orderservice.model;
+
+import org.example.orderservice.exception.InvalidParameterException;
+
+import java.util.Arrays;
+
+/**
+ * How order lines are enriched with product details on reads.
+ * <ul>
+ *     <li>{@code NONE}: no product details.</li>
+ *     <li>{@code SNAPSHOT}: name and price stored on the line when it was written.</li>
+ *     <li>{@code LIVE}: current product fetched from product-service.</li>
+ * </ul>
+ */
+public enum EnrichMode {
+    NONE,
+    SNAPSHOT,
+    LIVE;
+
+    public static EnrichMode of(String value) {
+        // Valeur inconnue : erreur du client (400), pas une IllegalArgumentException (500)
+        return Arrays.stream(values())
+                .filter(mode -> value != null && mode.name().equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidParameterException("Unknown enrich mode: " + value
+                        + ", expected one of none, snapshot, live"));
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.orderservice.model;
+
+import org.example.orderservice.exception.InvalidParameterException;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat of(String value) {
+        return Arrays.stream(values())
+                .filter(format -> value != null && format.name().equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidParameterException("Unknown export format: " + value
+                        + ", expected one of ndjson, csv"));
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one order of a {@code POST /orders/batch} request, reported at its index in the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderBatchResult {
+    public enum Status { CREATED, FAILED }
+
+    private int index;
+    private Long orderId;
+    private Status status;
+    private String error;
+
+    public static OrderBatchResult created(int index, Long orderId) {
+        return new OrderBatchResult(index, orderId, Status.CREATED, null);
+    }
+
+    public static OrderBatchResult failed(int index, String error) {
+        return new OrderBatchResult(index, null, Status.FAILED, error);
+    }
+}
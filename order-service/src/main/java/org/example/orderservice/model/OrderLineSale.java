@@ -0,0 +1,14 @@
+package org.example.orderservice.model;
+
+import java.util.Date;
+
+/**
+ * The columns of an order line and of its order that feed the sales rollups.
+ */
+public interface OrderLineSale {
+    Long getId();
+    Date getDate();
+    Long getProductId();
+    Integer getQuantity();
+    Double getUnitPrice();
+}
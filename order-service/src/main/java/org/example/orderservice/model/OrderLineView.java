@@ -0,0 +1,7 @@
+package org.example.orderservice.model;
+
+/**
+ * List view of an order line: its own columns and the id of its order.
+ */
+public record OrderLineView(Long id, Long orderId, Long productId, String productName, int quantity, Double unitPrice) {
+}
@@ -0,0 +1,28 @@
+package org.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Progress of an order submitted with {@code POST /orders?async=true}.
+ * The order id is only known once the order has been persisted. Immutable:
+ * each change of status replaces the cached instance.
+ */
+@Value
+@Builder(toBuilder = true)
+public class OrderPlacement {
+    public enum Status { QUEUED, CREATED, FAILED, REJECTED }
+
+    private String id;
+    private Status status;
+    private Long orderId;
+    private String error;
+    private Instant submittedAt;
+    private Instant completedAt;
+
+    @JsonIgnore
+    private String userId;
+}
@@ -0,0 +1,12 @@
+package org.example.orderservice.model;
+
+import org.example.orderservice.entity.Enum.OrderStatus;
+
+/**
+ * Number and total amount of a user's orders in one status.
+ */
+public interface OrderStatusTotal {
+    OrderStatus getStatus();
+    Long getOrderCount();
+    Double getTotalAmount();
+}
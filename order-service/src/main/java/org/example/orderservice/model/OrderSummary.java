@@ -0,0 +1,41 @@
+package org.example.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.orderservice.entity.Enum.OrderStatus;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Account overview of a user's orders. {@code totalSpent} leaves out cancelled orders.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummary {
+    private String userId;
+    private long orderCount;
+    private double totalSpent;
+    private Map<OrderStatus, Long> countByStatus;
+
+    public static OrderSummary of(String userId, List<OrderStatusTotal> totals) {
+        long orderCount = 0;
+        double totalSpent = 0;
+        Map<OrderStatus, Long> countByStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values())
+            countByStatus.put(status, 0L);
+        for (OrderStatusTotal total : totals) {
+            orderCount += total.getOrderCount();
+            if (total.getStatus() != null)
+                countByStatus.put(total.getStatus(), total.getOrderCount());
+            if (total.getStatus() != OrderStatus.CANCELLED)
+                totalSpent += total.getTotalAmount();
+        }
+        return new OrderSummary(userId, orderCount, totalSpent, countByStatus);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.orderservice.model;
+
+/**
+ * An order whose stored total no longer matches the sum of its lines.
+ */
+public interface OrderTotalDrift {
+    Long getOrderId();
+    Double getStoredTotal();
+    Double getComputedTotal();
+}
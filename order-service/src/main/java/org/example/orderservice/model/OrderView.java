@@ -0,0 +1,11 @@
+package org.example.orderservice.model;
+
+import org.example.orderservice.entity.Enum.OrderStatus;
+
+import java.util.Date;
+
+/**
+ * List view of an order: its header columns and the number of lines, without the lines.
+ */
+public record OrderView(Long id, Date date, OrderStatus status, String userId, double totalAmount, int lineCount) {
+}
@@ -0,0 +1,10 @@
+package org.example.orderservice.model;
+
+/**
+ * Quantity sold and revenue of one product over a range of days.
+ */
+public interface ProductSales {
+    Long getProductId();
+    Long getQuantity();
+    Double getRevenue();
+}
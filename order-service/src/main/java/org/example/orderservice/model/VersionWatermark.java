@@ -0,0 +1,12 @@
+package org.example.orderservice.model;
+
+/**
+ * Summary of the versions of a set of entities: it changes whenever one of them
+ * is inserted, updated or deleted, so it can stand in for the whole set in an ETag.
+ */
+public record VersionWatermark(Long count, Long versionSum, Long maxId) {
+
+    public String toETag() {
+        return count + "-" + versionSum + "-" + maxId;
+    }
+}
@@ -1,7 +1,13 @@
 package org.example.orderservice.repository;
 
 import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.OrderLineSale;
+import org.example.orderservice.model.OrderLineView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +15,14 @@ import java.util.List;
 @Repository
 public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
     List<OrderLine> findByOrderId(Long orderId);
+    Slice<OrderLine> findBy(Pageable pageable);
+    Slice<OrderLine> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select new org.example.orderservice.model.OrderLineView(l.id, l.order.id, l.productId, l.productName, l.quantity, l.unitPrice) " +
+            "from OrderLine l where l.id > :after")
+    Slice<OrderLineView> findViews(Long after, Pageable pageable);
+
+    @Query("select l.id as id, o.date as date, l.productId as productId, l.quantity as quantity, l.unitPrice as unitPrice " +
+            "from OrderLine l join l.order o where l.id > :after order by l.id")
+    List<OrderLineSale> findSalesAfter(Long after, Limit limit);
 }
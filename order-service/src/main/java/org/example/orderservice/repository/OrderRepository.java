@@ -1,12 +1,74 @@
 package org.example.orderservice.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.orderservice.entity.Order;
+import org.example.orderservice.model.OrderStatusTotal;
+import org.example.orderservice.model.OrderTotalDrift;
+import org.example.orderservice.model.OrderView;
+import org.example.orderservice.model.VersionWatermark;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order,Long> {
-    List<Order> findByUserId(String id);
+    // A single order is read with its lines in one join query.
+    @EntityGraph(attributePaths = "orderLines")
+    Optional<Order> findWithOrderLinesById(Long id);
+
+    // Paged reads and the export stream cannot fetch-join a collection without paging
+    // in memory; they rely on the @BatchSize of Order.orderLines instead.
+    Slice<Order> findBy(Pageable pageable);
+    Slice<Order> findByIdGreaterThan(Long id, Pageable pageable);
+    Slice<Order> findByUserId(String userId, Pageable pageable);
+    Slice<Order> findByUserIdAndIdGreaterThan(String userId, Long id, Pageable pageable);
+
+    // Vues de liste : seules les colonnes affichées, sans charger d'entité
+    @Query("select new org.example.orderservice.model.OrderView(o.id, o.date, o.status, o.userId, o.totalAmount, size(o.orderLines)) " +
+            "from Order o where o.id > :after")
+    Slice<OrderView> findViews(Long after, Pageable pageable);
+
+    @Query("select new org.example.orderservice.model.OrderView(o.id, o.date, o.status, o.userId, o.totalAmount, size(o.orderLines)) " +
+            "from Order o where o.userId = :userId and o.id > :after")
+    Slice<OrderView> findViewsByUserId(String userId, Long after, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o order by o.id")
+    Stream<Order> streamAll();
+
+    @Query("select new org.example.orderservice.model.VersionWatermark(count(o), coalesce(sum(o.version), 0L), coalesce(max(o.id), 0L)) " +
+            "from Order o")
+    VersionWatermark findWatermark();
+
+    @Query("select new org.example.orderservice.model.VersionWatermark(count(o), coalesce(sum(o.version), 0L), coalesce(max(o.id), 0L)) " +
+            "from Order o where o.userId = :userId")
+    VersionWatermark findWatermarkByUserId(String userId);
+
+    @Query("select o.version from Order o where o.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select o.id as orderId, o.totalAmount as storedTotal, " +
+            "coalesce(sum(l.unitPrice * l.quantity), 0) as computedTotal " +
+            "from Order o left join o.orderLines l " +
+            "group by o.id, o.totalAmount " +
+            "having abs(o.totalAmount - coalesce(sum(l.unitPrice * l.quantity), 0)) > :tolerance " +
+            "order by o.id")
+    List<OrderTotalDrift> findTotalDrift(double tolerance);
+
+    // Agrégat sur l'index user_id : aucune commande ni ligne n'est chargée
+    @Query("select o.status as status, count(o) as orderCount, coalesce(sum(o.totalAmount), 0) as totalAmount " +
+            "from Order o where o.userId = :userId group by o.status")
+    List<OrderStatusTotal> summarizeByUserId(String userId);
 }
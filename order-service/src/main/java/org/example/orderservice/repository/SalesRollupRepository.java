@@ -0,0 +1,39 @@
+package org.example.orderservice.repository;
+
+import org.example.orderservice.entity.SalesRollup;
+import org.example.orderservice.entity.SalesRollupId;
+import org.example.orderservice.model.DailySales;
+import org.example.orderservice.model.ProductSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollupId> {
+
+    // Un seul MERGE atomique : pas de lecture préalable ni de conflit à la création de la ligne
+    @Modifying
+    @Query(value = "merge into sales_rollups r " +
+            "using (values (cast(:day as date), cast(:productId as bigint), cast(:quantity as bigint), cast(:revenue as double precision))) " +
+            "as d(sales_day, product_id, quantity, revenue) " +
+            "on r.sales_day = d.sales_day and r.product_id = d.product_id " +
+            "when matched then update set quantity = r.quantity + d.quantity, revenue = r.revenue + d.revenue " +
+            "when not matched then insert (sales_day, product_id, quantity, revenue) " +
+            "values (d.sales_day, d.product_id, d.quantity, d.revenue)",
+            nativeQuery = true)
+    void addDelta(LocalDate day, Long productId, long quantity, double revenue);
+
+    @Query("select r.id.day as day, sum(r.quantity) as quantity, sum(r.revenue) as revenue " +
+            "from SalesRollup r where r.id.day between :from and :to " +
+            "group by r.id.day order by r.id.day")
+    List<DailySales> findDailySales(LocalDate from, LocalDate to);
+
+    @Query("select r.id.productId as productId, sum(r.quantity) as quantity, sum(r.revenue) as revenue " +
+            "from SalesRollup r where r.id.day between :from and :to " +
+            "group by r.id.productId order by sum(r.revenue) desc, r.id.productId")
+    List<ProductSales> findProductSales(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,98 @@
+package org.example.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.example.orderservice.exception.ConcurrentOrderUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.retry.RetryException;
+import org.springframework.core.retry.RetryListener;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryTemplate;
+import org.springframework.core.retry.Retryable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Runs an update of the order aggregate in its own transaction and replays it
+ * when the {@code @Version} check fails, with exponential, jittered backoff
+ * ({@code order-retry.*}). Once the retries are exhausted the conflict is
+ * reported as a {@link ConcurrentOrderUpdateException} (409).
+ * <p>
+ * Conflicts, retries and exhausted retries are counted per operation as
+ * {@code order.optimistic-lock.conflicts}, {@code .retries} and {@code .exhausted}.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final RetryTemplate retryTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${order-retry.max-retries:5}") long maxRetries,
+                           @Value("${order-retry.delay:20ms}") Duration delay,
+                           @Value("${order-retry.jitter:10ms}") Duration jitter,
+                           @Value("${order-retry.max-delay:500ms}") Duration maxDelay) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.retryTemplate = new RetryTemplate(RetryPolicy.builder()
+                .includes(OptimisticLockingFailureException.class, OptimisticLockException.class)
+                .maxRetries(maxRetries)
+                .delay(delay)
+                .jitter(jitter)
+                .multiplier(2)
+                .maxDelay(maxDelay)
+                .build());
+        this.retryTemplate.setRetryListener(new RetryListener() {
+            @Override
+            public void beforeRetry(RetryPolicy retryPolicy, Retryable<?> retryable) {
+                count("order.optimistic-lock.retries", retryable.getName());
+            }
+
+            @Override
+            public void onRetryPolicyExhaustion(RetryPolicy retryPolicy, Retryable<?> retryable, RetryException exception) {
+                count("order.optimistic-lock.exhausted", retryable.getName());
+            }
+        });
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        try {
+            return retryTemplate.execute(new Retryable<T>() {
+                @Override
+                public T execute() {
+                    try {
+                        return transactionTemplate.execute(status -> action.get());
+                    } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                        count("order.optimistic-lock.conflicts", operation);
+                        throw e;
+                    }
+                }
+
+                @Override
+                public String getName() {
+                    return operation;
+                }
+            });
+        } catch (RetryException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException)
+                throw new ConcurrentOrderUpdateException("Order was modified concurrently, please retry", cause);
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (cause instanceof Error error)
+                throw error;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void count(String name, String operation) {
+        meterRegistry.counter(name, "operation", operation).increment();
+    }
+}
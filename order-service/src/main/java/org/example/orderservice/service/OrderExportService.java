@@ -0,0 +1,10 @@
+package org.example.orderservice.service;
+
+import org.example.orderservice.model.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface OrderExportService {
+    public void exportAll(OutputStream out, ExportFormat format) throws IOException;
+}
@@ -0,0 +1,101 @@
+package org.example.orderservice.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.ExportFormat;
+import org.example.orderservice.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams every order straight from a JDBC cursor to the response. The persistence
+ * context is cleared every {@code order-export.clear-every} orders so that memory
+ * stays flat whatever the number of orders.
+ */
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String CSV_HEADER =
+            "orderId,date,status,userId,orderLineId,productId,productName,quantity,unitPrice\n";
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int clearEvery;
+
+    public OrderExportServiceImpl(OrderRepository orderRepository,
+                                  EntityManager entityManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${order-export.clear-every:500}") int clearEvery) {
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.clearEvery = clearEvery;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportAll(OutputStream out, ExportFormat format) throws IOException {
+        if (format == ExportFormat.CSV)
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            Iterator<Order> iterator = orders.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                if (format == ExportFormat.CSV)
+                    writeCsv(out, order);
+                else
+                    writeNdjson(out, order);
+
+                if (++count % clearEvery == 0) {
+                    out.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private void writeNdjson(OutputStream out, Order order) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(order));
+        out.write('\n');
+    }
+
+    private void writeCsv(OutputStream out, Order order) throws IOException {
+        String orderColumns = csv(order.getId()) + "," + csv(order.getDate()) + ","
+                + csv(order.getStatus()) + "," + csv(order.getUserId()) + ",";
+        StringBuilder rows = new StringBuilder();
+        if (order.getOrderLines().isEmpty())
+            rows.append(orderColumns).append(",,,,\n");
+        for (OrderLine line : order.getOrderLines()) {
+            rows.append(orderColumns)
+                    .append(csv(line.getId())).append(',')
+                    .append(csv(line.getProductId())).append(',')
+                    .append(csv(line.getProductName())).append(',')
+                    .append(line.getQuantity()).append(',')
+                    .append(csv(line.getUnitPrice())).append('\n');
+        }
+        out.write(rows.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csv(Object value) {
+        if (value == null)
+            return "";
+        String text = value instanceof Date date ? date.toInstant().toString() : value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n"))
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        return text;
+    }
+}
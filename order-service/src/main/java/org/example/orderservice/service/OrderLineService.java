@@ -1,13 +1,18 @@
 package org.example.orderservice.service;
 
 import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.OrderLineView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface OrderLineService {
-    List<OrderLine> findAll();
-    OrderLine findById(Long id);
-    List<OrderLine> findByOrderId(Long orderId);
+    Slice<OrderLine> findAll(Pageable pageable, Long after, EnrichMode enrichMode);
+    Slice<OrderLineView> findViews(Pageable pageable, Long after);
+    OrderLine findById(Long id, EnrichMode enrichMode);
+    List<OrderLine> findByOrderId(Long orderId, EnrichMode enrichMode);
     void save(OrderLine orderLine);
     void update(Long id, OrderLine orderLine);
     void deleteById(Long id);
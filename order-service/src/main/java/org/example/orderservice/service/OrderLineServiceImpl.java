@@ -1,59 +1,94 @@
 package org.example.orderservice.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import org.example.orderservice.entity.Order;
 import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.OrderLineView;
+import org.example.orderservice.model.Product;
 import org.example.orderservice.repository.OrderLineRepository;
-import org.example.orderservice.web.ProductClient;
+import org.example.orderservice.repository.OrderRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class OrderLineServiceImpl implements OrderLineService {
 
     private final OrderLineRepository orderLineRepository;
-    private final ProductClient productClient;
+    private final OrderRepository orderRepository;
+    private final ProductLookupService productLookupService;
+    private final SalesRollupService salesRollupService;
+    private final StockService stockService;
+    private final EntityManager entityManager;
 
-    public OrderLineServiceImpl(OrderLineRepository orderLineRepository, ProductClient productClient) {
+    public OrderLineServiceImpl(OrderLineRepository orderLineRepository, OrderRepository orderRepository,
+                                ProductLookupService productLookupService, SalesRollupService salesRollupService,
+                                StockService stockService, EntityManager entityManager) {
         this.orderLineRepository = orderLineRepository;
-        this.productClient = productClient;
+        this.orderRepository = orderRepository;
+        this.productLookupService = productLookupService;
+        this.salesRollupService = salesRollupService;
+        this.stockService = stockService;
+        this.entityManager = entityManager;
     }
 
     @Override
-    public List<OrderLine> findAll() {
-        List<OrderLine> orderLines = orderLineRepository.findAll();
-        orderLines.forEach(orderLine -> {
-            if (orderLine.getProductId() != null) {
-                orderLine.setProduct(productClient.getProductById(orderLine.getProductId()));
-            }
-        });
+    public Slice<OrderLine> findAll(Pageable pageable, Long after, EnrichMode enrichMode) {
+        Slice<OrderLine> orderLines = after == null
+                ? orderLineRepository.findBy(pageable)
+                : orderLineRepository.findByIdGreaterThan(after, pageable);
+        productLookupService.enrich(orderLines.getContent(), enrichMode);
         return orderLines;
     }
 
     @Override
-    public OrderLine findById(Long id) {
+    public Slice<OrderLineView> findViews(Pageable pageable, Long after) {
+        return orderLineRepository.findViews(after == null ? 0L : after, pageable);
+    }
+
+    @Override
+    public OrderLine findById(Long id, EnrichMode enrichMode) {
         OrderLine orderLine = orderLineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("OrderLine not found with id: " + id));
-        if (orderLine.getProductId() != null) {
-            orderLine.setProduct(productClient.getProductById(orderLine.getProductId()));
-        }
+        productLookupService.enrich(List.of(orderLine), enrichMode);
         return orderLine;
     }
 
     @Override
-    public List<OrderLine> findByOrderId(Long orderId) {
+    public List<OrderLine> findByOrderId(Long orderId, EnrichMode enrichMode) {
         List<OrderLine> orderLines = orderLineRepository.findByOrderId(orderId);
-        orderLines.forEach(orderLine -> {
-            if (orderLine.getProductId() != null) {
-                orderLine.setProduct(productClient.getProductById(orderLine.getProductId()));
-            }
-        });
+        productLookupService.enrich(orderLines, enrichMode);
         return orderLines;
     }
 
+    @Transactional
     @Override
     public void save(OrderLine orderLine) {
+        if (orderLine.getProductId() != null) {
+            Product product = productLookupService.findById(orderLine.getProductId());
+            orderLine.setProductName(product.getName());
+            if (orderLine.getUnitPrice() == null)
+                orderLine.setUnitPrice(product.getPrice());
+        }
+        // Passer par la commande pour garder son total à jour
+        if (orderLine.getOrder() != null && orderLine.getOrder().getId() != null) {
+            Long orderId = orderLine.getOrder().getId();
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+            // Réservé comme les lignes ajoutées par la commande, libéré si la transaction échoue
+            stockService.reserve(List.of(orderLine));
+            order.addOrderLine(orderLine);
+            touch(order);
+        }
         orderLineRepository.save(orderLine);
+        if (orderLine.getOrder() != null)
+            salesRollupService.recordAdded(orderLine.getOrder(), List.of(orderLine));
     }
 
 
@@ -62,18 +97,63 @@ public class OrderLineServiceImpl implements OrderLineService {
     public void update(Long id, OrderLine orderLine) {
         OrderLine existingOrderLine = orderLineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("OrderLine not found with id: " + id));
+        double previousLineTotal = existingOrderLine.getLineTotal();
+        Long previousProductId = existingOrderLine.getProductId();
+        int previousQuantity = existingOrderLine.getQuantity();
         if (orderLine.getQuantity() > 0)
             existingOrderLine.setQuantity(orderLine.getQuantity());
+        if (orderLine.getProductId() != null && !orderLine.getProductId().equals(existingOrderLine.getProductId())) {
+            existingOrderLine.setProductId(orderLine.getProductId());
+            existingOrderLine.snapshot(productLookupService.findById(orderLine.getProductId()));
+        }
         if (orderLine.getUnitPrice() != null && orderLine.getUnitPrice() > 0)
             existingOrderLine.setUnitPrice(orderLine.getUnitPrice());
-        if (orderLine.getProductId() != null)
-            existingOrderLine.setProductId(orderLine.getProductId());
+        boolean changed = !Objects.equals(previousProductId, existingOrderLine.getProductId())
+                || previousQuantity != existingOrderLine.getQuantity()
+                || previousLineTotal != existingOrderLine.getLineTotal();
+        if (existingOrderLine.getOrder() != null && changed) {
+            adjustStock(previousProductId, previousQuantity, existingOrderLine.getProductId(), existingOrderLine.getQuantity());
+            existingOrderLine.getOrder().adjustTotalAmount(existingOrderLine.getLineTotal() - previousLineTotal);
+            touch(existingOrderLine.getOrder());
+        }
+        salesRollupService.recordChanged(existingOrderLine, previousProductId, previousQuantity, previousLineTotal);
     }
 
 
+    @Transactional
     @Override
     public void deleteById(Long id) {
-        orderLineRepository.deleteById(id);
+        orderLineRepository.findById(id).ifPresent(orderLine -> {
+            if (orderLine.getOrder() != null) {
+                stockService.release(List.of(orderLine));
+                salesRollupService.recordRemoved(orderLine.getOrder(), List.of(orderLine));
+                touch(orderLine.getOrder());
+                orderLine.getOrder().removeOrderLine(orderLine);
+            }
+            orderLineRepository.delete(orderLine);
+        });
     }
-}
 
+    // L'ETag d'une commande repose sur sa version : toute modification d'une ligne l'incrémente,
+    // même quand le total ne bouge pas (changement de produit au même prix)
+    private void touch(Order order) {
+        entityManager.lock(order, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    // Réserve ou libère seulement l'écart ; les libérations partent après commit
+    private void adjustStock(Long previousProductId, int previousQuantity, Long productId, int quantity) {
+        if (Objects.equals(previousProductId, productId)) {
+            if (quantity > previousQuantity)
+                stockService.reserve(List.of(stockLine(productId, quantity - previousQuantity)));
+            else if (quantity < previousQuantity)
+                stockService.release(List.of(stockLine(productId, previousQuantity - quantity)));
+        } else {
+            stockService.reserve(List.of(stockLine(productId, quantity)));
+            stockService.release(List.of(stockLine(previousProductId, previousQuantity)));
+        }
+    }
+
+    private static OrderLine stockLine(Long productId, int quantity) {
+        return OrderLine.builder().productId(productId).quantity(quantity).build();
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.orderservice.service;
+
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.model.OrderPlacement;
+
+public interface OrderPlacementService {
+    public OrderPlacement submit(Order order);
+    public OrderPlacement findById(String id);
+}
@@ -0,0 +1,164 @@
+package org.example.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.OrderBatchResult;
+import org.example.orderservice.model.OrderPlacement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Places orders asynchronously: {@link #submit} only validates the order and
+ * puts it on a bounded queue of {@code order-placement.queue-capacity}
+ * entries, and rejects it when the queue is full. A pool of
+ * {@code order-placement.workers} threads drains the queue in micro-batches of
+ * up to {@code order-placement.batch-size} orders and persists each batch
+ * through {@link OrderService#saveAll}, so prices are resolved once per batch.
+ * <p>
+ * Workers run without the submitters' authentication: a batch mixes orders of
+ * several users, so product-service is called with the client-credentials
+ * token of order-service (see {@code ProductClientConfig}). Placement
+ * statuses are kept for {@code order-placement.status-ttl}.
+ */
+@Slf4j
+@Service
+public class OrderPlacementServiceImpl implements OrderPlacementService {
+
+    private record PendingOrder(OrderPlacement placement, Order order) {
+    }
+
+    private final OrderService orderService;
+    private final BlockingQueue<PendingOrder> queue;
+    private final Cache<String, OrderPlacement> placements;
+    private final int workers;
+    private final int batchSize;
+    private final ExecutorService workerPool;
+    private volatile boolean running;
+
+    public OrderPlacementServiceImpl(OrderService orderService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${order-placement.queue-capacity:1000}") int queueCapacity,
+                                     @Value("${order-placement.workers:2}") int workers,
+                                     @Value("${order-placement.batch-size:50}") int batchSize,
+                                     @Value("${order-placement.status-ttl:1h}") Duration statusTtl) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.placements = Caffeine.newBuilder().expireAfterWrite(statusTtl).build();
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.workerPool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("order-placement-"));
+        Gauge.builder("order.placement.queue", queue, BlockingQueue::size)
+                .description("Orders waiting to be placed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++)
+            workerPool.execute(this::work);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Les workers vident la file avant de s'arrêter
+        running = false;
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(30, TimeUnit.SECONDS))
+            workerPool.shutdownNow();
+    }
+
+    @Override
+    public OrderPlacement submit(Order order) {
+        validate(order);
+        OrderPlacement placement = OrderPlacement.builder()
+                .id(UUID.randomUUID().toString())
+                .status(OrderPlacement.Status.QUEUED)
+                .userId(order.getUserId())
+                .submittedAt(Instant.now())
+                .build();
+        placements.put(placement.getId(), placement);
+        if (!running || !queue.offer(new PendingOrder(placement, order))) {
+            placements.invalidate(placement.getId());
+            return placement.toBuilder().status(OrderPlacement.Status.REJECTED).build();
+        }
+        return placement;
+    }
+
+    @Override
+    public OrderPlacement findById(String id) {
+        OrderPlacement placement = placements.getIfPresent(id);
+        if (placement == null)
+            throw new RuntimeException("Order placement not found with id: " + id);
+        return placement;
+    }
+
+    private void validate(Order order) {
+        if (order.getOrderLines() == null || order.getOrderLines().isEmpty())
+            throw new RuntimeException("Order must have at least one order line");
+        for (OrderLine line : order.getOrderLines()) {
+            if (line.getProductId() == null)
+                throw new RuntimeException("Product id is required");
+            if (line.getQuantity() <= 0)
+                throw new RuntimeException("Quantity must be positive for product: " + line.getProductId());
+        }
+    }
+
+    private void work() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                place(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void place(List<PendingOrder> batch) {
+        try {
+            List<OrderBatchResult> results = orderService.saveAll(batch.stream().map(PendingOrder::order).toList());
+            for (OrderBatchResult result : results) {
+                complete(batch.get(result.getIndex()).placement(), result.getStatus() == OrderBatchResult.Status.CREATED
+                        ? OrderPlacement.Status.CREATED
+                        : OrderPlacement.Status.FAILED, result.getOrderId(), result.getError());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to place a batch of {} orders", batch.size(), e);
+            batch.forEach(pending -> complete(pending.placement(), OrderPlacement.Status.FAILED, null, e.getMessage()));
+        }
+    }
+
+    // Nouvelle instance : un lecteur ne voit jamais un statut à moitié renseigné
+    private void complete(OrderPlacement placement, OrderPlacement.Status status, Long orderId, String error) {
+        placements.put(placement.getId(), placement.toBuilder()
+                .status(status)
+                .orderId(orderId)
+                .error(error)
+                .completedAt(Instant.now())
+                .build());
+    }
+}
@@ -3,17 +3,35 @@ package org.example.orderservice.service;
 
 import org.example.orderservice.entity.Order;
 import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.OrderBatchResult;
+import org.example.orderservice.model.OrderSummary;
+import org.example.orderservice.model.OrderTotalDrift;
+import org.example.orderservice.model.OrderView;
+import org.example.orderservice.model.VersionWatermark;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface OrderService {
-    public List<Order> findAll();
-    public Order findById(Long id);
+    public Slice<Order> findAll(Pageable pageable, Long after, EnrichMode enrichMode);
+    public Slice<OrderView> findViews(Pageable pageable, Long after);
+    public Order findById(Long id, EnrichMode enrichMode);
+    public Long findVersionById(Long id);
+    public VersionWatermark findWatermark();
+    public VersionWatermark findWatermarkByUserId(String userId);
+    public OrderSummary summarizeByUserId(String userId);
     public void save(Order order);
+    public List<OrderBatchResult> saveAll(List<Order> orders);
     public void update(Long id, Order order);
     public void deleteById(Long id);
-    public List<Order> findByUserId(String id);
+    public Slice<Order> findByUserId(String id, Pageable pageable, Long after, EnrichMode enrichMode);
+    public Slice<OrderView> findViewsByUserId(String userId, Pageable pageable, Long after);
 
     public Order addOrderLine(Long orderId, OrderLine orderLine);
     public Order removeOrderLine(Long orderId, Long orderLineId);
+
+    public List<OrderTotalDrift> findTotalDrift();
+    public int repairTotalDrift();
 }
@@ -1,126 +1,336 @@
 package org.example.orderservice.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.example.orderservice.entity.Order;
 import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.OrderBatchResult;
+import org.example.orderservice.model.OrderSummary;
+import org.example.orderservice.model.OrderTotalDrift;
+import org.example.orderservice.model.OrderView;
+import org.example.orderservice.model.Product;
+import org.example.orderservice.model.VersionWatermark;
 import org.example.orderservice.repository.OrderLineRepository;
 import org.example.orderservice.repository.OrderRepository;
-import org.example.orderservice.web.ProductClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final double TOTAL_DRIFT_TOLERANCE = 0.005;
+
     private final OrderRepository orderRepository;
     private final OrderLineRepository orderLineRepository;
-    private final ProductClient productClient;
+    private final ProductLookupService productLookupService;
+    private final StockService stockService;
+    private final OptimisticRetry optimisticRetry;
+    private final SalesRollupService salesRollupService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchChunkSize;
 
-    public OrderServiceImpl(OrderRepository orderRepository, OrderLineRepository orderLineRepository, ProductClient productClient) {
+    public OrderServiceImpl(OrderRepository orderRepository,
+                            OrderLineRepository orderLineRepository,
+                            ProductLookupService productLookupService,
+                            StockService stockService,
+                            OptimisticRetry optimisticRetry,
+                            SalesRollupService salesRollupService,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${order-batch.chunk-size:500}") int batchChunkSize) {
         this.orderRepository = orderRepository;
         this.orderLineRepository = orderLineRepository;
-        this.productClient = productClient;
+        this.productLookupService = productLookupService;
+        this.stockService = stockService;
+        this.optimisticRetry = optimisticRetry;
+        this.salesRollupService = salesRollupService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchChunkSize = batchChunkSize;
     }
 
 
-    @Transactional
     @Override
     public Order addOrderLine(
             Long orderId,
             OrderLine orderLine) {
 
-        Order order = orderRepository.findById(orderId).orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
-        orderLine.setUnitPrice(productClient.getProductById(orderLine.getProductId()).getPrice());
-        order.addOrderLine(orderLine);
-        return order;
+        orderLine.snapshot(productLookupService.findById(orderLine.getProductId()));
+        // Le stock est réservé une seule fois, en dehors des tentatives
+        List<OrderLine> addedOrderLines = List.of(orderLine);
+        stockService.reserve(addedOrderLines);
+        try {
+            return optimisticRetry.execute("add-order-line", () -> {
+                Order order = orderRepository.findById(orderId).orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+                resetIds(addedOrderLines);
+                order.addOrderLine(orderLine);
+                salesRollupService.recordAdded(order, addedOrderLines);
+                return order;
+            });
+        } catch (RuntimeException e) {
+            stockService.release(addedOrderLines);
+            throw e;
+        }
     }
 
 
-    @Transactional
     @Override
     public Order removeOrderLine(
             Long orderId,
             Long orderLineId) {
 
-        Order order = orderRepository.findById(orderId).orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
-        OrderLine orderLine = orderLineRepository.findById(orderLineId).orElseThrow(() -> new RuntimeException("OrderLine not found with id: " + orderLineId));
-        order.removeOrderLine(orderLine);
-        return order;
+        return optimisticRetry.execute("remove-order-line", () -> {
+            Order order = orderRepository.findById(orderId).orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+            OrderLine orderLine = orderLineRepository.findById(orderLineId).orElseThrow(() -> new RuntimeException("OrderLine not found with id: " + orderLineId));
+            if (order.getOrderLines().contains(orderLine)) {
+                stockService.release(List.of(orderLine));
+                salesRollupService.recordRemoved(order, List.of(orderLine));
+            }
+            order.removeOrderLine(orderLine);
+            return order;
+        });
     }
 
 
     @Override
-    public List<Order> findAll() {
-
-        List<Order> orders = orderRepository.findAll();
-
-        orders.forEach(order -> {
-            List<OrderLine> orderLines = order.getOrderLines();
-            orderLines.forEach(orderLine -> {
-                if (orderLine.getProductId() != null) {
-                    orderLine.setProduct(productClient.getProductById(orderLine.getProductId()));
-                }
-            });
-        });
+    public Slice<Order> findAll(Pageable pageable, Long after, EnrichMode enrichMode) {
+        Slice<Order> orders = after == null
+                ? orderRepository.findBy(pageable)
+                : orderRepository.findByIdGreaterThan(after, pageable);
+        productLookupService.enrich(orders.stream()
+                .flatMap(order -> order.getOrderLines().stream())
+                .toList(), enrichMode);
         return orders;
     }
 
     @Override
-    public Order findById(Long id) {
-        Order order = orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
-        List<OrderLine> orderLines = order.getOrderLines();
-        orderLines.forEach(orderLine -> {
-            if (orderLine.getProductId() != null) {
-                orderLine.setProduct(productClient.getProductById(orderLine.getProductId()));
-            }
-        });
+    public Slice<OrderView> findViews(Pageable pageable, Long after) {
+        return orderRepository.findViews(after == null ? 0L : after, pageable);
+    }
+
+    @Override
+    public Order findById(Long id, EnrichMode enrichMode) {
+        Order order = orderRepository.findWithOrderLinesById(id).orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        productLookupService.enrich(order.getOrderLines(), enrichMode);
         return order;
     }
 
     @Transactional
     @Override
     public void save(Order order) {
+        if (order.getDate() == null)
+            order.setDate(new Date());
         // Traiter les lignes de commande
         if (order.getOrderLines() != null) {
-            for (OrderLine line : order.getOrderLines()) {
-                // Enrichir avec le prix du produit
-                if (line.getProductId() != null) {
-                    line.setUnitPrice(
-                            productClient.getProductById(line.getProductId()).getPrice()
-                    );
-                }
-                //Établir la relation bidirectionnelle
-                line.setOrder(order);
-            }
+            // Enrichir avec le nom et le prix du produit
+            snapshotProducts(order.getOrderLines());
+            //Établir la relation bidirectionnelle
+            order.getOrderLines().forEach(line -> line.setOrder(order));
+            order.recalculateTotalAmount();
+
+            // Réserver le stock de toute la commande en un seul appel
+            stockService.reserve(order.getOrderLines());
         }
 
         // Sauvegarder
         orderRepository.save(order);
+        if (order.getOrderLines() != null)
+            salesRollupService.recordAdded(order, order.getOrderLines());
+    }
+
+    @Override
+    public List<OrderBatchResult> saveAll(List<Order> orders) {
+        OrderBatchResult[] results = new OrderBatchResult[orders.size()];
+        orders.stream()
+                .filter(order -> order.getOrderLines() == null)
+                .forEach(order -> order.setOrderLines(new ArrayList<>()));
+
+        // Récupérer les produits distincts de toutes les commandes en un seul appel
+        Map<Long, Product> products = productLookupService.findAllById(orders.stream()
+                .flatMap(order -> order.getOrderLines().stream())
+                .map(OrderLine::getProductId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+
+        List<Integer> accepted = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (order.getDate() == null)
+                order.setDate(new Date());
+            String error = validateProducts(order, products);
+            if (error != null) {
+                results[i] = OrderBatchResult.failed(i, error);
+                continue;
+            }
+            order.getOrderLines().forEach(line -> {
+                line.snapshot(products.get(line.getProductId()));
+                line.setOrder(order);
+            });
+            order.recalculateTotalAmount();
+            try {
+                stockService.reserve(order.getOrderLines());
+            } catch (RuntimeException e) {
+                results[i] = OrderBatchResult.failed(i, e.getMessage());
+                continue;
+            }
+            accepted.add(i);
+        }
+
+        // Une transaction par lot : les insertions sont regroupées par Hibernate (hibernate.jdbc.batch_size)
+        for (int from = 0; from < accepted.size(); from += batchChunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + batchChunkSize, accepted.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    chunk.forEach(i -> entityManager.persist(orders.get(i)));
+                    entityManager.flush();
+                    // Après le flush pour ne pas couper les lots d'insertions
+                    salesRollupService.recordAdded(chunk.stream().map(orders::get).toList());
+                    entityManager.clear();
+                });
+                chunk.forEach(i -> results[i] = OrderBatchResult.created(i, orders.get(i).getId()));
+            } catch (RuntimeException e) {
+                chunk.forEach(i -> {
+                    stockService.release(orders.get(i).getOrderLines());
+                    results[i] = OrderBatchResult.failed(i, e.getMessage());
+                });
+            }
+        }
+        return Arrays.asList(results);
     }
 
-    @Transactional
     @Override
     public void update(Long id, Order order) {
-        Order existingOrder = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
-        if (order.getDate() != null)
-            existingOrder.setDate(order.getDate());
-        if (order.getStatus() != null)
-            existingOrder.setStatus(order.getStatus());
-        if(order.getOrderLines() != null)
-            order.getOrderLines().forEach(orderLine -> {
-                existingOrder.addOrderLine(orderLine);
+        // Seules les nouvelles lignes sont ajoutées
+        List<OrderLine> newOrderLines = order.getOrderLines() == null ? List.of() : order.getOrderLines().stream()
+                .filter(orderLine -> orderLine.getId() == null)
+                .toList();
+        snapshotProducts(newOrderLines);
+        stockService.reserve(newOrderLines);
+        try {
+            optimisticRetry.execute("update", () -> {
+                Order existingOrder = orderRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+                Date previousDate = existingOrder.getDate();
+                if (order.getDate() != null && (previousDate == null || previousDate.getTime() != order.getDate().getTime())) {
+                    existingOrder.setDate(order.getDate());
+                    salesRollupService.recordDateChanged(existingOrder, previousDate);
+                }
+                if (order.getStatus() != null)
+                    existingOrder.setStatus(order.getStatus());
+                resetIds(newOrderLines);
+                newOrderLines.forEach(existingOrder::addOrderLine);
+                salesRollupService.recordAdded(existingOrder, newOrderLines);
+                return existingOrder;
             });
+        } catch (RuntimeException e) {
+            stockService.release(newOrderLines);
+            throw e;
+        }
     }
 
+    @Transactional
     @Override
     public void deleteById(Long id) {
-        orderRepository.deleteById(id);
+        orderRepository.findById(id).ifPresent(order -> {
+            // Libéré une fois la suppression validée
+            stockService.release(order.getOrderLines());
+            salesRollupService.recordRemoved(order, order.getOrderLines());
+            orderRepository.delete(order);
+        });
+    }
+
+    @Override
+    public Slice<Order> findByUserId(String id, Pageable pageable, Long after, EnrichMode enrichMode) {
+        Slice<Order> orders = after == null
+                ? orderRepository.findByUserId(id, pageable)
+                : orderRepository.findByUserIdAndIdGreaterThan(id, after, pageable);
+        productLookupService.enrich(orders.stream()
+                .flatMap(order -> order.getOrderLines().stream())
+                .toList(), enrichMode);
+        return orders;
     }
 
     @Override
-    public List<Order> findByUserId(String id) {
-        return orderRepository.findByUserId(id);
+    public Slice<OrderView> findViewsByUserId(String userId, Pageable pageable, Long after) {
+        return orderRepository.findViewsByUserId(userId, after == null ? 0L : after, pageable);
+    }
+
+    @Override
+    public Long findVersionById(Long id) {
+        return orderRepository.findVersionById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+    }
+
+    @Override
+    public VersionWatermark findWatermark() {
+        return orderRepository.findWatermark();
+    }
+
+    @Override
+    public VersionWatermark findWatermarkByUserId(String userId) {
+        return orderRepository.findWatermarkByUserId(userId);
+    }
+
+    @Override
+    public OrderSummary summarizeByUserId(String userId) {
+        return OrderSummary.of(userId, orderRepository.summarizeByUserId(userId));
+    }
+
+    @Override
+    public List<OrderTotalDrift> findTotalDrift() {
+        return orderRepository.findTotalDrift(TOTAL_DRIFT_TOLERANCE);
+    }
+
+    @Transactional
+    @Override
+    public int repairTotalDrift() {
+        List<OrderTotalDrift> drifts = orderRepository.findTotalDrift(TOTAL_DRIFT_TOLERANCE);
+        orderRepository.findAllById(drifts.stream().map(OrderTotalDrift::getOrderId).toList())
+                .forEach(Order::recalculateTotalAmount);
+        return drifts.size();
+    }
+
+    private String validateProducts(Order order, Map<Long, Product> products) {
+        for (OrderLine line : order.getOrderLines()) {
+            if (line.getProductId() == null)
+                return "Product id is required";
+            if (!products.containsKey(line.getProductId()))
+                return "Product not found with id: " + line.getProductId();
+        }
+        return null;
+    }
+
+    // Une tentative annulée laisse aux nouvelles lignes l'id tiré de la séquence
+    private void resetIds(Collection<OrderLine> newOrderLines) {
+        newOrderLines.forEach(orderLine -> orderLine.setId(null));
+    }
+
+    // Récupère les produits de toutes les lignes en un seul appel
+    private void snapshotProducts(Collection<OrderLine> orderLines) {
+        Map<Long, Product> products = productLookupService.findAllById(
+                orderLines.stream().map(OrderLine::getProductId).toList());
+        for (OrderLine line : orderLines) {
+            if (line.getProductId() != null) {
+                Product product = products.get(line.getProductId());
+                if (product == null)
+                    throw new RuntimeException("Product not found with id: " + line.getProductId());
+                line.snapshot(product);
+            }
+        }
     }
 }
@@ -0,0 +1,41 @@
+package org.example.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconciles the stored order totals with their lines once the application is
+ * ready. Orders created before {@code total_amount} existed get the column
+ * default, 0, and are recomputed here; on an up-to-date table the drift query
+ * finds nothing. Disabled with {@code order-total.backfill-on-startup=false}.
+ */
+@Slf4j
+@Component
+public class OrderTotalBackfill {
+
+    private final OrderService orderService;
+    private final boolean enabled;
+
+    public OrderTotalBackfill(OrderService orderService,
+                              @Value("${order-total.backfill-on-startup:true}") boolean enabled) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled)
+            return;
+        // Un échec ne bloque pas le démarrage : /orders/reconciliation reste disponible
+        try {
+            int repaired = orderService.repairTotalDrift();
+            if (repaired > 0)
+                log.info("Backfilled the total of {} orders", repaired);
+        } catch (RuntimeException e) {
+            log.warn("Failed to backfill order totals", e);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.orderservice.service;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.orderservice.exception.ProductServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Guards every call to product-service with a bulkhead and a circuit breaker.
+ * <p>
+ * The bulkhead caps the calls in flight at {@code product-client.bulkhead.max-concurrent-calls};
+ * a caller waits at most {@code product-client.bulkhead.max-wait} for a slot.
+ * <p>
+ * The breaker keeps the outcome of the last {@code product-client.breaker.window-size}
+ * calls. Once at least {@code minimum-calls} are recorded and the share of failed
+ * calls reaches {@code failure-rate-threshold} %, or the share of calls slower than
+ * {@code slow-call-threshold} reaches {@code slow-call-rate-threshold} %, it opens:
+ * calls are rejected right away for {@code open-duration}. The next call is then let
+ * through as a probe (half-open); the breaker closes if the probe is fast and
+ * succeeds, and opens again otherwise. Only server errors and I/O errors (timeouts
+ * included) count as failures; a 4xx means product-service answered.
+ * <p>
+ * Rejected calls throw {@link ProductServiceUnavailableException} (503) and are
+ * counted as {@code product.client.rejected}, tagged by reason; the state is
+ * published as {@code product.client.breaker.state} (0 closed, 1 open, 2 half-open).
+ */
+@Slf4j
+@Component
+public class ProductCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final long NO_PROBE = 0;
+
+    private final Semaphore bulkhead;
+    private final long maxWaitNanos;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int slowCallRateThreshold;
+    private final long openNanos;
+    private final LongSupplier ticker;
+    private final Counter rejectedOpen;
+    private final Counter rejectedBulkhead;
+
+    // Fenêtre glissante des derniers appels, protégée par le verrou de l'instance
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    // Jeton de la sonde en cours (NO_PROBE sinon) : seul cet appel décide de la sortie de HALF_OPEN
+    private long probe = NO_PROBE;
+    private long lastProbe;
+
+    @Autowired
+    public ProductCircuitBreaker(MeterRegistry meterRegistry,
+                                 @Value("${product-client.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+                                 @Value("${product-client.bulkhead.max-wait:50ms}") Duration maxWait,
+                                 @Value("${product-client.breaker.window-size:20}") int windowSize,
+                                 @Value("${product-client.breaker.minimum-calls:10}") int minimumCalls,
+                                 @Value("${product-client.breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                                 @Value("${product-client.breaker.slow-call-threshold:1s}") Duration slowCallThreshold,
+                                 @Value("${product-client.breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+                                 @Value("${product-client.breaker.open-duration:10s}") Duration openDuration) {
+        this(meterRegistry, maxConcurrentCalls, maxWait, windowSize, minimumCalls, failureRateThreshold,
+                slowCallThreshold, slowCallRateThreshold, openDuration, System::nanoTime);
+    }
+
+    ProductCircuitBreaker(MeterRegistry meterRegistry, int maxConcurrentCalls, Duration maxWait,
+                          int windowSize, int minimumCalls, int failureRateThreshold,
+                          Duration slowCallThreshold, int slowCallRateThreshold, Duration openDuration,
+                          LongSupplier ticker) {
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.ticker = ticker;
+        this.rejectedOpen = Counter.builder("product.client.rejected")
+                .description("Calls to product-service rejected without being sent")
+                .tag("reason", "open")
+                .register(meterRegistry);
+        this.rejectedBulkhead = Counter.builder("product.client.rejected")
+                .description("Calls to product-service rejected without being sent")
+                .tag("reason", "bulkhead")
+                .register(meterRegistry);
+        Gauge.builder("product.client.breaker.state", this, breaker -> breaker.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        acquireSlot();
+        try {
+            long token = acquirePermission();
+            long start = ticker.getAsLong();
+            try {
+                T result = call.get();
+                record(token, false, ticker.getAsLong() - start);
+                return result;
+            } catch (RuntimeException | Error e) {
+                record(token, isFailure(e), ticker.getAsLong() - start);
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && ticker.getAsLong() - openedAt >= openNanos)
+            return State.HALF_OPEN;
+        return state;
+    }
+
+    private void acquireSlot() {
+        try {
+            if (bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejectedBulkhead.increment();
+        throw new ProductServiceUnavailableException("Too many concurrent calls to product-service");
+    }
+
+    /**
+     * Returns the probe token when the call is let through as the half-open probe,
+     * {@code NO_PROBE} for an ordinary call.
+     */
+    private synchronized long acquirePermission() {
+        if (state == State.OPEN && ticker.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probe = NO_PROBE;
+        }
+        if (state == State.CLOSED)
+            return NO_PROBE;
+        if (state == State.HALF_OPEN && probe == NO_PROBE) {
+            probe = ++lastProbe;
+            return probe;
+        }
+        rejectedOpen.increment();
+        throw new ProductServiceUnavailableException("product-service is unavailable, circuit breaker is open");
+    }
+
+    private synchronized void record(long token, boolean callFailed, long nanos) {
+        boolean callSlow = nanos >= slowCallNanos;
+        switch (state) {
+            case HALF_OPEN -> {
+                // Appel parti avant l'ouverture : ce n'est pas la sonde
+                if (token != probe)
+                    return;
+                probe = NO_PROBE;
+                if (callFailed || callSlow) {
+                    log.warn("Probe call to product-service {}, circuit breaker stays open", callFailed ? "failed" : "was slow");
+                    open();
+                } else {
+                    log.info("Probe call to product-service succeeded, closing circuit breaker");
+                    close();
+                }
+            }
+            case CLOSED -> {
+                if (recorded == failed.length) {
+                    failures -= failed[next] ? 1 : 0;
+                    slowCalls -= slow[next] ? 1 : 0;
+                } else {
+                    recorded++;
+                }
+                failed[next] = callFailed;
+                slow[next] = callSlow;
+                failures += callFailed ? 1 : 0;
+                slowCalls += callSlow ? 1 : 0;
+                next = (next + 1) % failed.length;
+                if (recorded >= minimumCalls
+                        && (failures * 100 >= failureRateThreshold * recorded
+                        || slowCalls * 100 >= slowCallRateThreshold * recorded)) {
+                    log.warn("Opening circuit breaker for product-service: {} failed and {} slow out of {} calls",
+                            failures, slowCalls, recorded);
+                    open();
+                }
+            }
+            // Appels partis avant l'ouverture : le verdict est déjà rendu
+            case OPEN -> {
+            }
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = ticker.getAsLong();
+        reset();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        reset();
+    }
+
+    private void reset() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private static boolean isFailure(Throwable e) {
+        if (e instanceof FeignException feignException)
+            return feignException.status() < 0 || feignException.status() >= 500;
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.orderservice.service;
+
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.Product;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProductLookupService {
+    public Product findById(Long id);
+    public Map<Long, Product> findAllById(Collection<Long> ids);
+    public void enrich(Collection<OrderLine> orderLines, EnrichMode mode);
+
+    public void evict(Long id);
+    public void evictAll();
+}
@@ -0,0 +1,187 @@
+package org.example.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.Product;
+import org.example.orderservice.web.ProductClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Resolves products from product-service in as few round-trips as possible:
+ * products are served from the local {@code productCache} first, and the
+ * distinct ids that missed are fetched through the batch endpoint, in chunks
+ * of {@code product-client.batch-size} ids that run concurrently on the
+ * {@code productLookupExecutor}. Concurrent requests for the same id share a
+ * single in-flight call through {@link SingleFlight}.
+ * <p>
+ * Live enrichment is best effort: chunks that fail or are still running when
+ * {@code product-client.enrich-timeout} elapses leave their lines with
+ * {@code product = null}. Direct lookups used for pricing fail instead.
+ * <p>
+ * Calls go through the {@link ProductCircuitBreaker}. When a fetch fails, is
+ * rejected or times out, the product falls back to the last version fetched,
+ * kept in {@code productSnapshots}; only products never seen are left out or fail.
+ */
+@Slf4j
+@Service
+public class ProductLookupServiceImpl implements ProductLookupService {
+
+    private final ProductClient productClient;
+    private final Cache<Long, Product> productCache;
+    private final Cache<Long, Product> productSnapshots;
+    private final ProductCircuitBreaker productCircuitBreaker;
+    private final ExecutorService productLookupExecutor;
+    private final SingleFlight<Long, Product> singleFlight = new SingleFlight<>();
+    private final int batchSize;
+    private final Duration enrichTimeout;
+
+    public ProductLookupServiceImpl(ProductClient productClient,
+                                    Cache<Long, Product> productCache,
+                                    Cache<Long, Product> productSnapshots,
+                                    ProductCircuitBreaker productCircuitBreaker,
+                                    ExecutorService productLookupExecutor,
+                                    @Value("${product-client.batch-size:100}") int batchSize,
+                                    @Value("${product-client.enrich-timeout:2s}") Duration enrichTimeout,
+                                    MeterRegistry meterRegistry) {
+        this.productClient = productClient;
+        this.productCache = productCache;
+        this.productSnapshots = productSnapshots;
+        this.productCircuitBreaker = productCircuitBreaker;
+        this.productLookupExecutor = productLookupExecutor;
+        this.batchSize = batchSize;
+        this.enrichTimeout = enrichTimeout;
+        FunctionCounter.builder("product.lookup.single-flight", singleFlight, SingleFlight::getExecutedCount)
+                .description("Product lookups that went to product-service")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        FunctionCounter.builder("product.lookup.single-flight", singleFlight, SingleFlight::getCollapsedCount)
+                .description("Product lookups that joined a call already in flight")
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Product findById(Long id) {
+        Product product = findAllById(List.of(id)).get(id);
+        if (product == null)
+            throw new RuntimeException("Product not found with id: " + id);
+        return product;
+    }
+
+    @Override
+    public Map<Long, Product> findAllById(Collection<Long> ids) {
+        return load(ids, false);
+    }
+
+    @Override
+    public void enrich(Collection<OrderLine> orderLines, EnrichMode mode) {
+        switch (mode) {
+            case NONE -> orderLines.forEach(orderLine -> orderLine.setProduct(null));
+            case SNAPSHOT -> orderLines.forEach(orderLine -> orderLine.setProduct(toSnapshot(orderLine)));
+            case LIVE -> enrichLive(orderLines);
+        }
+    }
+
+    private void enrichLive(Collection<OrderLine> orderLines) {
+        Map<Long, Product> products = load(orderLines.stream().map(OrderLine::getProductId).toList(), true);
+        orderLines.forEach(orderLine -> {
+            if (orderLine.getProductId() != null) {
+                orderLine.setProduct(products.get(orderLine.getProductId()));
+            }
+        });
+    }
+
+    @Override
+    public void evict(Long id) {
+        productCache.invalidate(id);
+    }
+
+    @Override
+    public void evictAll() {
+        productCache.invalidateAll();
+    }
+
+    private Map<Long, Product> load(Collection<Long> ids, boolean bestEffort) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, Product> products = new HashMap<>(productCache.getAllPresent(distinctIds));
+        List<Long> missingIds = distinctIds.stream().filter(id -> !products.containsKey(id)).toList();
+        if (missingIds.isEmpty())
+            return products;
+
+        Map<Long, CompletableFuture<Product>> pending = singleFlight.execute(missingIds, this::fetch);
+
+        long deadline = System.nanoTime() + enrichTimeout.toNanos();
+        for (Map.Entry<Long, CompletableFuture<Product>> entry : pending.entrySet()) {
+            try {
+                Product product = bestEffort
+                        ? entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        : entry.getValue().get();
+                if (product != null)
+                    products.put(entry.getKey(), product);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while fetching products", e);
+            } catch (ExecutionException | TimeoutException e) {
+                Throwable cause = e instanceof ExecutionException ? unwrap(e.getCause()) : e;
+                Product snapshot = productSnapshots.getIfPresent(entry.getKey());
+                if (snapshot != null) {
+                    log.debug("Product {} served from its last snapshot: {}", entry.getKey(), cause.toString());
+                    products.put(entry.getKey(), snapshot);
+                    continue;
+                }
+                if (!bestEffort) {
+                    if (cause instanceof RuntimeException runtimeException)
+                        throw runtimeException;
+                    throw new RuntimeException("Failed to fetch products from product-service", cause);
+                }
+                log.warn("Product {} skipped during enrichment: {}", entry.getKey(), cause.toString());
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Fetches the ids this caller leads in {@code batchSize} chunks, in parallel,
+     * and caches whatever comes back.
+     */
+    private Map<Long, CompletableFuture<Product>> fetch(List<Long> ids) {
+        Map<Long, CompletableFuture<Product>> futures = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            CompletableFuture<Map<Long, Product>> fetched = CompletableFuture.supplyAsync(() -> {
+                Map<Long, Product> byId = new HashMap<>();
+                productCircuitBreaker.call(() -> productClient.getProductsByIds(chunk)).forEach(product -> {
+                    productCache.put(product.getId(), product);
+                    productSnapshots.put(product.getId(), product);
+                    byId.put(product.getId(), product);
+                });
+                return byId;
+            }, productLookupExecutor);
+            chunk.forEach(id -> futures.put(id, fetched.thenApply(byId -> byId.get(id))));
+        }
+        return futures;
+    }
+
+    private static Product toSnapshot(OrderLine orderLine) {
+        if (orderLine.getProductId() == null)
+            return null;
+        Product product = new Product();
+        product.setId(orderLine.getProductId());
+        product.setName(orderLine.getProductName());
+        product.setPrice(orderLine.getUnitPrice());
+        return product;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
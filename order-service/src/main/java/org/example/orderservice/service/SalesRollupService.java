@@ -0,0 +1,22 @@
+package org.example.orderservice.service;
+
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.DailySales;
+import org.example.orderservice.model.ProductSales;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface SalesRollupService {
+    public void recordAdded(Order order, Collection<OrderLine> orderLines);
+    public void recordAdded(Collection<Order> orders);
+    public void recordRemoved(Order order, Collection<OrderLine> orderLines);
+    public void recordChanged(OrderLine orderLine, Long previousProductId, int previousQuantity, double previousLineTotal);
+    public void recordDateChanged(Order order, Date previousDate);
+    public List<DailySales> findDailySales(LocalDate from, LocalDate to);
+    public List<ProductSales> findProductSales(LocalDate from, LocalDate to);
+    public long rebuild();
+}
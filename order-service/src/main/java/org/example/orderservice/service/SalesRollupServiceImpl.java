@@ -0,0 +1,168 @@
+package org.example.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.entity.SalesRollupId;
+import org.example.orderservice.model.DailySales;
+import org.example.orderservice.model.OrderLineSale;
+import org.example.orderservice.model.ProductSales;
+import org.example.orderservice.repository.OrderLineRepository;
+import org.example.orderservice.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@code sales_rollups} table, quantity and revenue per day and product,
+ * in step with the order lines.
+ * <p>
+ * The {@code record*} methods write their deltas in the caller's transaction, so a
+ * rolled back order change leaves the rollups untouched. Deltas are merged per day
+ * and product first, so one change costs one statement per product. Orders
+ * without a date are not rolled up. Days are taken in the {@code sales-rollup.zone}
+ * time zone.
+ * <p>
+ * {@link #rebuild()} recomputes the table from {@code order_lines} in a single
+ * transaction, reading {@code sales-rollup.rebuild-chunk-size} lines per query:
+ * readers see the old rollups until it commits, and a failed rebuild keeps them.
+ * Order writes made while it runs may still be counted twice or not at all, so it
+ * is meant for a quiet period.
+ */
+@Slf4j
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zone;
+    private final int rebuildChunkSize;
+
+    public SalesRollupServiceImpl(SalesRollupRepository salesRollupRepository,
+                                  OrderLineRepository orderLineRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${sales-rollup.zone:}") String zone,
+                                  @Value("${sales-rollup.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderLineRepository = orderLineRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    @Override
+    public void recordAdded(Order order, Collection<OrderLine> orderLines) {
+        Deltas deltas = new Deltas();
+        orderLines.forEach(line -> deltas.add(order.getDate(), line.getProductId(), line.getQuantity(), line.getLineTotal()));
+        write(deltas);
+    }
+
+    @Override
+    public void recordAdded(Collection<Order> orders) {
+        Deltas deltas = new Deltas();
+        orders.forEach(order -> order.getOrderLines().forEach(line ->
+                deltas.add(order.getDate(), line.getProductId(), line.getQuantity(), line.getLineTotal())));
+        write(deltas);
+    }
+
+    @Override
+    public void recordRemoved(Order order, Collection<OrderLine> orderLines) {
+        Deltas deltas = new Deltas();
+        orderLines.forEach(line -> deltas.add(order.getDate(), line.getProductId(), -line.getQuantity(), -line.getLineTotal()));
+        write(deltas);
+    }
+
+    @Override
+    public void recordChanged(OrderLine orderLine, Long previousProductId, int previousQuantity, double previousLineTotal) {
+        if (orderLine.getOrder() == null)
+            return;
+        Date date = orderLine.getOrder().getDate();
+        Deltas deltas = new Deltas();
+        deltas.add(date, previousProductId, -previousQuantity, -previousLineTotal);
+        deltas.add(date, orderLine.getProductId(), orderLine.getQuantity(), orderLine.getLineTotal());
+        write(deltas);
+    }
+
+    @Override
+    public void recordDateChanged(Order order, Date previousDate) {
+        Deltas deltas = new Deltas();
+        for (OrderLine line : order.getOrderLines()) {
+            deltas.add(previousDate, line.getProductId(), -line.getQuantity(), -line.getLineTotal());
+            deltas.add(order.getDate(), line.getProductId(), line.getQuantity(), line.getLineTotal());
+        }
+        write(deltas);
+    }
+
+    @Override
+    public List<DailySales> findDailySales(LocalDate from, LocalDate to) {
+        return salesRollupRepository.findDailySales(from, to);
+    }
+
+    @Override
+    public List<ProductSales> findProductSales(LocalDate from, LocalDate to) {
+        return salesRollupRepository.findProductSales(from, to);
+    }
+
+    @Override
+    public long rebuild() {
+        // Une seule transaction : les lecteurs gardent les anciens cumuls jusqu'au commit,
+        // et un échec en cours de route les laisse intacts au lieu d'une table vide ou partielle
+        Long lines = transactionTemplate.execute(status -> {
+            salesRollupRepository.deleteAllInBatch();
+            long count = 0;
+            Long after = 0L;
+            while (true) {
+                List<OrderLineSale> sales = orderLineRepository.findSalesAfter(after, Limit.of(rebuildChunkSize));
+                if (sales.isEmpty())
+                    return count;
+                Deltas deltas = new Deltas();
+                sales.forEach(sale -> deltas.add(sale.getDate(), sale.getProductId(), sale.getQuantity(),
+                        sale.getUnitPrice() == null ? 0.0 : sale.getUnitPrice() * sale.getQuantity()));
+                write(deltas);
+                count += sales.size();
+                after = sales.get(sales.size() - 1).getId();
+            }
+        });
+        log.info("Rebuilt sales rollups from {} order lines", lines);
+        return lines == null ? 0 : lines;
+    }
+
+    private void write(Deltas deltas) {
+        deltas.values.forEach((key, delta) -> {
+            if (delta.quantity != 0 || delta.revenue != 0)
+                salesRollupRepository.addDelta(key.getDay(), key.getProductId(), delta.quantity, delta.revenue);
+        });
+    }
+
+    // Cumule les variations par jour et par produit avant de les écrire
+    private class Deltas {
+        private final Map<SalesRollupId, Delta> values = new LinkedHashMap<>();
+
+        void add(Date date, Long productId, long quantity, double revenue) {
+            if (date == null || productId == null)
+                return;
+            // getTime() plutôt que toInstant() : java.sql.Date ne le supporte pas
+            LocalDate day = Instant.ofEpochMilli(date.getTime()).atZone(zone).toLocalDate();
+            Delta delta = values.computeIfAbsent(new SalesRollupId(day, productId), key -> new Delta());
+            delta.quantity += quantity;
+            delta.revenue += revenue;
+        }
+    }
+
+    private static class Delta {
+        private long quantity;
+        private double revenue;
+    }
+}
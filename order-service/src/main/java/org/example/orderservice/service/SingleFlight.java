@@ -0,0 +1,73 @@
+package org.example.orderservice.service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent loads of the same key into a single call. The first caller
+ * asking for a key becomes its leader and runs the loader; callers arriving while
+ * that load is in flight get the leader's future instead of starting their own.
+ * Nothing is retained once a load completes, so this is not a cache.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * Returns a future per key. The loader is called at most once, with the keys this
+     * caller leads, and returns a future per key; a key it leaves out resolves to null.
+     */
+    public Map<K, CompletableFuture<V>> execute(Collection<K> keys,
+                                                Function<List<K>, Map<K, CompletableFuture<V>>> loader) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> led = new LinkedHashMap<>();
+        for (K key : keys) {
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+            if (existing == null) {
+                led.put(key, future);
+                futures.put(key, future);
+                executed.increment();
+            } else {
+                futures.put(key, existing);
+                collapsed.increment();
+            }
+        }
+        if (led.isEmpty())
+            return futures;
+
+        Map<K, CompletableFuture<V>> loads;
+        try {
+            loads = loader.apply(new ArrayList<>(led.keySet()));
+        } catch (RuntimeException | Error e) {
+            led.forEach((key, future) -> {
+                inFlight.remove(key, future);
+                future.completeExceptionally(e);
+            });
+            throw e;
+        }
+        led.forEach((key, future) -> loads.getOrDefault(key, CompletableFuture.completedFuture(null))
+                .whenComplete((value, failure) -> {
+                    inFlight.remove(key, future);
+                    if (failure != null)
+                        future.completeExceptionally(failure);
+                    else
+                        future.complete(value);
+                }));
+        return futures;
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getCollapsedCount() {
+        return collapsed.sum();
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.orderservice.service;
+
+import org.example.orderservice.entity.OrderLine;
+
+import java.util.Collection;
+
+public interface StockService {
+    public void reserve(Collection<OrderLine> orderLines);
+    public void release(Collection<OrderLine> orderLines);
+}
@@ -0,0 +1,90 @@
+package org.example.orderservice.service;
+
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.exception.InsufficientStockException;
+import org.example.orderservice.model.StockItem;
+import org.example.orderservice.web.ProductClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reserves and releases stock in product-service, one round-trip per call.
+ * <p>
+ * Inside a transaction, a reservation is released again if the transaction
+ * rolls back, and a release is only sent once the transaction has committed,
+ * so stock follows what is actually persisted.
+ * <p>
+ * Calls go through the {@link ProductCircuitBreaker}; there is no fallback, a
+ * rejected reservation fails the order with a 503.
+ */
+@Slf4j
+@Service
+public class StockServiceImpl implements StockService {
+
+    private final ProductClient productClient;
+    private final ProductCircuitBreaker productCircuitBreaker;
+
+    public StockServiceImpl(ProductClient productClient, ProductCircuitBreaker productCircuitBreaker) {
+        this.productClient = productClient;
+        this.productCircuitBreaker = productCircuitBreaker;
+    }
+
+    @Override
+    public void reserve(Collection<OrderLine> orderLines) {
+        List<StockItem> items = toStockItems(orderLines);
+        if (items.isEmpty())
+            return;
+        try {
+            productCircuitBreaker.run(() -> productClient.reserve(items));
+        } catch (FeignException.Conflict e) {
+            throw new InsufficientStockException("Insufficient stock for order");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED)
+                        releaseQuietly(items);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void release(Collection<OrderLine> orderLines) {
+        List<StockItem> items = toStockItems(orderLines);
+        if (items.isEmpty())
+            return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseQuietly(items);
+                }
+            });
+        } else {
+            productCircuitBreaker.run(() -> productClient.release(items));
+        }
+    }
+
+    private void releaseQuietly(List<StockItem> items) {
+        try {
+            productCircuitBreaker.run(() -> productClient.release(items));
+        } catch (RuntimeException e) {
+            log.error("Failed to release stock {}", items, e);
+        }
+    }
+
+    private List<StockItem> toStockItems(Collection<OrderLine> orderLines) {
+        return orderLines.stream()
+                .filter(orderLine -> orderLine.getProductId() != null && orderLine.getQuantity() > 0)
+                .map(orderLine -> new StockItem(orderLine.getProductId(), orderLine.getQuantity()))
+                .toList();
+    }
+}
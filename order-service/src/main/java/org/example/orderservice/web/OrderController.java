@@ -3,37 +3,112 @@ package org.example.orderservice.web;
 import org.example.orderservice.entity.Enum.OrderStatus;
 import org.example.orderservice.entity.Order;
 import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.exception.InvalidParameterException;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.ExportFormat;
+import org.example.orderservice.model.OrderBatchResult;
+import org.example.orderservice.model.OrderPlacement;
+import org.example.orderservice.model.OrderSummary;
+import org.example.orderservice.model.OrderTotalDrift;
+import org.example.orderservice.model.OrderView;
+import org.example.orderservice.service.OrderExportService;
+import org.example.orderservice.service.OrderPlacementService;
 import org.example.orderservice.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-
+import java.net.URI;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
     private final OrderService orderService;
-
-    public OrderController(OrderService orderService) {
+    private final OrderExportService orderExportService;
+    private final OrderPlacementService orderPlacementService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+
+    public OrderController(OrderService orderService,
+                           OrderExportService orderExportService,
+                           OrderPlacementService orderPlacementService,
+                           @Value("${pagination.default-size:20}") int defaultPageSize,
+                           @Value("${pagination.max-size:100}") int maxPageSize,
+                           @Value("${order-batch.max-size:1000}") int maxBatchSize) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.orderPlacementService = orderPlacementService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping
-    public ResponseEntity<List<Order>> findAll() {
-        return ResponseEntity.ok(orderService.findAll());
+    public ResponseEntity<List<Order>> findAll(@RequestParam(defaultValue = "snapshot") String enrich,
+                                               PageQuery pageQuery,
+                                               WebRequest webRequest) {
+        EnrichMode enrichMode = EnrichMode.of(enrich);
+        if (notModified(webRequest, enrichMode, () -> orderService.findWatermark().toETag()))
+            return null;
+        return pageQuery.toResponse(
+                orderService.findAll(pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after(), enrichMode),
+                Order::getId);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<OrderView>> findAllViews(PageQuery pageQuery, WebRequest webRequest) {
+        if (webRequest.checkNotModified(orderService.findWatermark().toETag() + "-summary"))
+            return null;
+        return pageQuery.toResponse(
+                orderService.findViews(pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after()),
+                OrderView::id);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders." + exportFormat.getExtension())
+                .body(out -> orderExportService.exportAll(out, exportFormat));
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/reconciliation")
+    public ResponseEntity<List<OrderTotalDrift>> findTotalDrift() {
+        return ResponseEntity.ok(orderService.findTotalDrift());
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/reconciliation/repair")
+    public ResponseEntity<String> repairTotalDrift() {
+        int repaired = orderService.repairTotalDrift();
+        return ResponseEntity.ok(repaired + " order totals repaired");
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/{id}")
-    public ResponseEntity<Order> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.findById(id));
+    public ResponseEntity<Order> findById(@PathVariable Long id,
+                                          @RequestParam(defaultValue = "snapshot") String enrich,
+                                          WebRequest webRequest) {
+        EnrichMode enrichMode = EnrichMode.of(enrich);
+        if (notModified(webRequest, enrichMode, () -> id + "-" + orderService.findVersionById(id)))
+            return null;
+        return ResponseEntity.ok(orderService.findById(id, enrichMode));
     }
 
 
@@ -45,6 +120,37 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body("Order created successfully");
     }
 
+    @PostMapping(params = "async=true")
+    public ResponseEntity<OrderPlacement> submit(@RequestBody Order order, @AuthenticationPrincipal Jwt jwt) {
+        order.setUserId(jwt.getSubject());
+        OrderPlacement placement = orderPlacementService.submit(order);
+        if (placement.getStatus() == OrderPlacement.Status.REJECTED)
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(placement);
+        return ResponseEntity.accepted()
+                .location(URI.create("/orders/placements/" + placement.getId()))
+                .body(placement);
+    }
+
+    @GetMapping("/placements/{id}")
+    public ResponseEntity<OrderPlacement> findPlacement(@PathVariable String id, @AuthenticationPrincipal Jwt jwt) {
+        OrderPlacement placement = orderPlacementService.findById(id);
+        if (!jwt.getSubject().equals(placement.getUserId()))
+            throw new RuntimeException("Order placement not found with id: " + id);
+        return ResponseEntity.ok(placement);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderBatchResult>> saveAll(@RequestBody List<Order> orders, @AuthenticationPrincipal Jwt jwt) {
+        // Un lot trop gros tiendrait la transaction et le pool trop longtemps
+        if (orders.size() > maxBatchSize)
+            throw new InvalidParameterException("Batch of " + orders.size() + " orders exceeds the maximum of " + maxBatchSize);
+        String userId = jwt.getSubject();
+        orders.forEach(order -> order.setUserId(userId));
+        return ResponseEntity.ok(orderService.saveAll(orders));
+    }
+
     @PreAuthorize("hasAuthority('ADMIN')")
     @PutMapping("/{id}")
     public ResponseEntity<String> update(@PathVariable Long id, @RequestBody Order order) {
@@ -72,22 +178,59 @@ public class OrderController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> findByUserId(@PathVariable String userId) {
-        return ResponseEntity.ok(orderService.findByUserId(userId));
+    public ResponseEntity<List<Order>> findByUserId(@PathVariable String userId,
+                                                    @RequestParam(defaultValue = "snapshot") String enrich,
+                                                    PageQuery pageQuery,
+                                                    WebRequest webRequest) {
+        if (notModified(webRequest, EnrichMode.of(enrich), () -> orderService.findWatermarkByUserId(userId).toETag()))
+            return null;
+        return pageQuery.toResponse(
+                orderService.findByUserId(userId, pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after(), EnrichMode.of(enrich)),
+                Order::getId);
     }
 
     @GetMapping("myOrders")
-    public ResponseEntity<List<Order>> getMyOrders(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<List<Order>> getMyOrders(@AuthenticationPrincipal Jwt jwt,
+                                                   @RequestParam(defaultValue = "snapshot") String enrich,
+                                                   PageQuery pageQuery,
+                                                   WebRequest webRequest) {
         String userId = jwt.getSubject();
-        List<Order> orders = orderService.findByUserId(userId);
-        return ResponseEntity.ok(orders);
+        if (notModified(webRequest, EnrichMode.of(enrich), () -> orderService.findWatermarkByUserId(userId).toETag()))
+            return null;
+        return pageQuery.toResponse(
+                orderService.findByUserId(userId, pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after(), EnrichMode.of(enrich)),
+                Order::getId);
+    }
+
+    @GetMapping(value = "myOrders", params = "view=summary")
+    public ResponseEntity<List<OrderView>> getMyOrderViews(@AuthenticationPrincipal Jwt jwt,
+                                                           PageQuery pageQuery,
+                                                           WebRequest webRequest) {
+        String userId = jwt.getSubject();
+        if (webRequest.checkNotModified(orderService.findWatermarkByUserId(userId).toETag() + "-summary"))
+            return null;
+        return pageQuery.toResponse(
+                orderService.findViewsByUserId(userId, pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after()),
+                OrderView::id);
+    }
+
+    @GetMapping("myOrders/summary")
+    public OrderSummary getMyOrdersSummary(@AuthenticationPrincipal Jwt jwt) {
+        return orderService.summarizeByUserId(jwt.getSubject());
     }
 
     @PatchMapping("/{orderId}/status")
     public ResponseEntity<String> updateOrderStatus(@PathVariable Long orderId, @RequestParam String status) {
-        Order order = orderService.findById(orderId);
+        Order order = orderService.findById(orderId, EnrichMode.NONE);
         order.setStatus(Enum.valueOf(OrderStatus.class, status));
         orderService.update(orderId, order);
         return ResponseEntity.ok("Order status updated successfully");
     }
+
+    // Les ETags reposent sur les versions des commandes et sont vérifiés avant de charger les lignes.
+    // En mode live le corps dépend aussi de product-service : pas d'ETag.
+    private boolean notModified(WebRequest webRequest, EnrichMode enrichMode, Supplier<String> etag) {
+        return enrichMode != EnrichMode.LIVE
+                && webRequest.checkNotModified(etag.get() + "-" + enrichMode.name().toLowerCase());
+    }
 }
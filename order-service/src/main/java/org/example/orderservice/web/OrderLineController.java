@@ -1,7 +1,10 @@
 package org.example.orderservice.web;
 
 import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.OrderLineView;
 import org.example.orderservice.service.OrderLineService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,27 +17,46 @@ import java.util.List;
 public class OrderLineController {
 
     private final OrderLineService orderLineService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public OrderLineController(OrderLineService orderLineService) {
+    public OrderLineController(OrderLineService orderLineService,
+                               @Value("${pagination.default-size:20}") int defaultPageSize,
+                               @Value("${pagination.max-size:100}") int maxPageSize) {
         this.orderLineService = orderLineService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping
-    public ResponseEntity<List<OrderLine>> findAll() {
-        return ResponseEntity.ok(orderLineService.findAll());
+    public ResponseEntity<List<OrderLine>> findAll(@RequestParam(defaultValue = "snapshot") String enrich,
+                                                   PageQuery pageQuery) {
+        return pageQuery.toResponse(
+                orderLineService.findAll(pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after(), EnrichMode.of(enrich)),
+                OrderLine::getId);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<OrderLineView>> findAllViews(PageQuery pageQuery) {
+        return pageQuery.toResponse(
+                orderLineService.findViews(pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after()),
+                OrderLineView::id);
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/{id}")
-    public ResponseEntity<OrderLine> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(orderLineService.findById(id));
+    public ResponseEntity<OrderLine> findById(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "snapshot") String enrich) {
+        return ResponseEntity.ok(orderLineService.findById(id, EnrichMode.of(enrich)));
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/order/{orderId}")
-    public ResponseEntity<List<OrderLine>> findByOrderId(@PathVariable Long orderId) {
-        return ResponseEntity.ok(orderLineService.findByOrderId(orderId));
+    public ResponseEntity<List<OrderLine>> findByOrderId(@PathVariable Long orderId,
+                                                         @RequestParam(defaultValue = "snapshot") String enrich) {
+        return ResponseEntity.ok(orderLineService.findByOrderId(orderId, EnrichMode.of(enrich)));
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -0,0 +1,43 @@
+package org.example.orderservice.web;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Optional paging parameters of list endpoints: {@code page}/{@code size} for offset
+ * pagination, or {@code after}/{@code size} for keyset pagination on the id. Without
+ * any of them the first page of the default size is returned, never the whole table.
+ * The page size is clamped to the server-side maximum and the link to the next page,
+ * if any, is returned in a {@code Link: <...>; rel="next"} header.
+ */
+public record PageQuery(Integer page, Integer size, Long after) {
+
+    public Pageable toPageable(int defaultSize, int maxSize) {
+        int pageSize = size == null ? defaultSize : Math.min(Math.max(size, 1), maxSize);
+        int pageNumber = after != null || page == null ? 0 : Math.max(page, 0);
+        return PageRequest.of(pageNumber, pageSize, Sort.by("id"));
+    }
+
+    public <T> ResponseEntity<List<T>> toResponse(Slice<T> slice, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.hasNext() && slice.hasContent()) {
+            UriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("size", slice.getSize());
+            if (page != null && after == null)
+                next.replaceQueryParam("page", slice.getNumber() + 1);
+            else
+                next.replaceQueryParam("after", idOf.apply(slice.getContent().get(slice.getNumberOfElements() - 1)));
+            response.header(HttpHeaders.LINK, "<" + next.build().toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(slice.getContent());
+    }
+}
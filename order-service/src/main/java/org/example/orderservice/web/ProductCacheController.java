@@ -0,0 +1,31 @@
+package org.example.orderservice.web;
+
+import org.example.orderservice.service.ProductLookupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/product-cache")
+public class ProductCacheController {
+
+    private final ProductLookupService productLookupService;
+
+    public ProductCacheController(ProductLookupService productLookupService) {
+        this.productLookupService = productLookupService;
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @DeleteMapping
+    public ResponseEntity<String> evictAll() {
+        productLookupService.evictAll();
+        return ResponseEntity.ok("Product cache cleared successfully");
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<String> evict(@PathVariable Long productId) {
+        productLookupService.evict(productId);
+        return ResponseEntity.ok("Product evicted from cache successfully");
+    }
+}
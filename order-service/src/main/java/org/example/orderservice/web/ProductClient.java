@@ -1,12 +1,28 @@
 package org.example.orderservice.web;
 
 import org.example.orderservice.model.Product;
+import org.example.orderservice.model.StockItem;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "product-service", url = "http://localhost:8081")
+import java.util.Collection;
+import java.util.List;
+
+@FeignClient(name = "product-service", url = "${product-service.url:}")
 public interface ProductClient {
     @GetMapping("/products/{id}")
     public Product getProductById(@PathVariable Long id);
+
+    @GetMapping("/products/batch")
+    public List<Product> getProductsByIds(@RequestParam("ids") Collection<Long> ids);
+
+    @PostMapping("/products/reserve")
+    public void reserve(@RequestBody List<StockItem> items);
+
+    @PostMapping("/products/release")
+    public void release(@RequestBody List<StockItem> items);
 }
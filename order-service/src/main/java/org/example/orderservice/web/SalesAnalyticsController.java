@@ -0,0 +1,44 @@
+package org.example.orderservice.web;
+
+import org.example.orderservice.model.DailySales;
+import org.example.orderservice.model.ProductSales;
+import org.example.orderservice.service.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/orders/analytics")
+@PreAuthorize("hasAuthority('ADMIN')")
+public class SalesAnalyticsController {
+
+    private final SalesRollupService salesRollupService;
+
+    public SalesAnalyticsController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailySales>> findDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.findDailySales(from, to));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductSales>> findProductSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.findProductSales(from, to));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<String> rebuild() {
+        long lines = salesRollupService.rebuild();
+        return ResponseEntity.ok(lines + " order lines rolled up");
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.orderservice.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyAwareLoadBalancer Tests")
+class LatencyAwareLoadBalancerTest {
+
+    private final AtomicLong clock = new AtomicLong(1);
+    private final ServiceInstance fast = instance("fast", 8081);
+    private final ServiceInstance slow = instance("slow", 8083);
+    private InstanceLoadTracker tracker;
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new InstanceLoadTracker(0.5, Duration.ofMillis(50), 3, Duration.ofSeconds(1),
+                Duration.ofSeconds(30), clock::get);
+        loadBalancer = new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider("product-service", fast, slow), "product-service", tracker);
+    }
+
+    @Test
+    @DisplayName("Should send every request to the faster of two instances")
+    void testChoose_PrefersLowerLatency() {
+        complete(fast, Duration.ofMillis(10), HttpStatus.OK);
+        complete(slow, Duration.ofMillis(400), HttpStatus.OK);
+
+        for (int i = 0; i < 20; i++)
+            assertEquals(fast, loadBalancer.choose(new DefaultRequest<>()).block().getServer());
+    }
+
+    @Test
+    @DisplayName("Should move traffic away from an instance with many requests in flight")
+    void testChoose_PrefersFewerInFlight() {
+        complete(fast, Duration.ofMillis(20), HttpStatus.OK);
+        complete(slow, Duration.ofMillis(30), HttpStatus.OK);
+        for (int i = 0; i < 3; i++)
+            tracker.onStartRequest(new DefaultRequest<>(new RequestDataContext()), new DefaultResponse(fast));
+
+        assertEquals(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    @DisplayName("Should eject an instance after consecutive failures and bring it back later")
+    void testChoose_EjectsFailingInstance() {
+        for (int i = 0; i < 3; i++)
+            complete(fast, Duration.ofMillis(1), HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertTrue(tracker.isEjected(fast));
+        for (int i = 0; i < 20; i++)
+            assertEquals(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertFalse(tracker.isEjected(fast));
+    }
+
+    @Test
+    @DisplayName("Should eject an instance whose average latency becomes too slow")
+    void testChoose_EjectsSlowInstance() {
+        complete(slow, Duration.ofSeconds(3), HttpStatus.OK);
+
+        assertTrue(tracker.isEjected(slow));
+        assertFalse(tracker.isEjected(fast));
+    }
+
+    @Test
+    @DisplayName("Should fall back to all instances when every one is ejected")
+    void testChoose_AllEjected() {
+        complete(fast, Duration.ofSeconds(3), HttpStatus.OK);
+        complete(slow, Duration.ofSeconds(3), HttpStatus.OK);
+
+        assertTrue(loadBalancer.choose(List.of(fast, slow)).hasServer());
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+    }
+
+    private void complete(ServiceInstance instance, Duration latency, HttpStatus status) {
+        DefaultRequest<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> lbResponse = new DefaultResponse(instance);
+        tracker.onStartRequest(request, lbResponse);
+        clock.addAndGet(latency.toNanos());
+        ResponseData response = new ResponseData(status, new HttpHeaders(), null, null);
+        tracker.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse, response));
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        Map<String, String> metadata = new HashMap<>();
+        return new DefaultServiceInstance(host + "-" + port, "product-service", host, port, false, metadata);
+    }
+}
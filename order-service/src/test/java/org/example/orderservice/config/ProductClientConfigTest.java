@@ -0,0 +1,177 @@
+package org.example.orderservice.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.example.orderservice.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ProductClientConfig Tests")
+class ProductClientConfigTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final TypeReference<List<Product>> PRODUCTS = new TypeReference<>() {
+    };
+
+    @Test
+    @DisplayName("Should ask for Smile first and still accept JSON")
+    void testWireFormatInterceptor_Smile() {
+        RequestTemplate template = new RequestTemplate();
+        new ProductClientConfig().wireFormatInterceptor("smile").apply(template);
+
+        assertEquals(List.of(ProductClientConfig.SMILE_ACCEPT), List.copyOf(template.headers().get(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    @DisplayName("Should leave an explicit Accept header and the JSON format alone")
+    void testWireFormatInterceptor_KeepsAccept() {
+        RequestInterceptor smile = new ProductClientConfig().wireFormatInterceptor("smile");
+        RequestTemplate explicit = new RequestTemplate().header(HttpHeaders.ACCEPT, "application/json");
+        smile.apply(explicit);
+        RequestTemplate json = new RequestTemplate();
+        new ProductClientConfig().wireFormatInterceptor("json").apply(json);
+
+        assertEquals(List.of("application/json"), List.copyOf(explicit.headers().get(HttpHeaders.ACCEPT)));
+        assertFalse(json.headers().containsKey(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    @DisplayName("Should replace the user token with the client-credentials token on stock endpoints")
+    void testServiceTokenInterceptor_StockPaths() {
+        OAuth2AuthorizedClientManager manager = mock(OAuth2AuthorizedClientManager.class);
+        when(manager.authorize(any(OAuth2AuthorizeRequest.class))).thenReturn(authorizedClient("service-token"));
+        RequestInterceptor interceptor = new ProductClientConfig().serviceTokenInterceptor(manager, "product-service");
+
+        RequestTemplate reserve = new RequestTemplate().uri("/products/reserve").header(HttpHeaders.AUTHORIZATION, "Bearer user-token");
+        interceptor.apply(reserve);
+        RequestTemplate release = new RequestTemplate().uri("/products/release");
+        interceptor.apply(release);
+
+        assertEquals(List.of("Bearer service-token"), List.copyOf(reserve.headers().get(HttpHeaders.AUTHORIZATION)));
+        assertEquals(List.of("Bearer service-token"), List.copyOf(release.headers().get(HttpHeaders.AUTHORIZATION)));
+    }
+
+    @Test
+    @DisplayName("Should leave the relayed user token on catalog reads")
+    void testServiceTokenInterceptor_OtherPaths() {
+        OAuth2AuthorizedClientManager manager = mock(OAuth2AuthorizedClientManager.class);
+        RequestTemplate template = new RequestTemplate().uri("/products/1").header(HttpHeaders.AUTHORIZATION, "Bearer user-token");
+        Jwt jwt = Jwt.withTokenValue("user-token").header("alg", "none").subject("alice").build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        try {
+            new ProductClientConfig().serviceTokenInterceptor(manager, "product-service").apply(template);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertEquals(List.of("Bearer user-token"), List.copyOf(template.headers().get(HttpHeaders.AUTHORIZATION)));
+        verifyNoInteractions(manager);
+    }
+
+    @Test
+    @DisplayName("Should use the client-credentials token outside a user request")
+    void testServiceTokenInterceptor_NoUser() {
+        OAuth2AuthorizedClientManager manager = mock(OAuth2AuthorizedClientManager.class);
+        when(manager.authorize(any(OAuth2AuthorizeRequest.class))).thenReturn(authorizedClient("service-token"));
+        RequestTemplate template = new RequestTemplate().uri("/products/1");
+
+        new ProductClientConfig().serviceTokenInterceptor(manager, "product-service").apply(template);
+
+        assertEquals(List.of("Bearer service-token"), List.copyOf(template.headers().get(HttpHeaders.AUTHORIZATION)));
+    }
+
+    @Test
+    @DisplayName("Should fail the stock call when no service token can be obtained")
+    void testServiceTokenInterceptor_NoToken() {
+        OAuth2AuthorizedClientManager manager = mock(OAuth2AuthorizedClientManager.class);
+        RequestInterceptor interceptor = new ProductClientConfig().serviceTokenInterceptor(manager, "product-service");
+
+        assertThrows(IllegalStateException.class, () -> interceptor.apply(new RequestTemplate().uri("/products/reserve")));
+    }
+
+    @Test
+    @DisplayName("Should register a Smile converter among the default client converters")
+    void testClientConverters_ReadSmile() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        HttpMessageConverters.forClient().registerDefaults().build().forEach(converters::add);
+
+        assertTrue(converters.stream().anyMatch(converter -> converter.getSupportedMediaTypes().contains(SMILE)));
+    }
+
+    @Test
+    @DisplayName("Should encode a product batch smaller in Smile and decode it no slower than JSON")
+    void testSmilePayload_SmallerThanJson() {
+        List<Product> products = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setName("Product " + i);
+            product.setDescription("Description of product " + i);
+            product.setPrice(10.0 + i);
+            product.setQuantity((int) (i % 50));
+            products.add(product);
+        }
+
+        JsonMapper jsonMapper = JsonMapper.shared();
+        SmileMapper smileMapper = SmileMapper.shared();
+
+        byte[] json = jsonMapper.writeValueAsBytes(products);
+        byte[] smile = smileMapper.writeValueAsBytes(products);
+
+        assertTrue(smile.length < json.length);
+        assertEquals(products, smileMapper.readValue(smile, PRODUCTS));
+        // Meilleur temps sur plusieurs essais, avec une marge large : seule une régression nette échoue
+        long jsonNanos = decodeNanos(jsonMapper, json);
+        long smileNanos = decodeNanos(smileMapper, smile);
+        assertTrue(smileNanos < jsonNanos * 2,
+                "Smile decode " + smileNanos + " ns vs JSON " + jsonNanos + " ns");
+    }
+
+    private static long decodeNanos(ObjectMapper mapper, byte[] payload) {
+        for (int i = 0; i < 50; i++)
+            mapper.readValue(payload, PRODUCTS);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 50; i++) {
+            long start = System.nanoTime();
+            mapper.readValue(payload, PRODUCTS);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static OAuth2AuthorizedClient authorizedClient(String token) {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("product-service")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("order-service")
+                .tokenUri("http://localhost/token")
+                .build();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, token,
+                Instant.now(), Instant.now().plusSeconds(60));
+        return new OAuth2AuthorizedClient(registration, ProductClientConfig.SERVICE_PRINCIPAL, accessToken);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.orderservice.model;
+
+import org.example.orderservice.exception.InvalidParameterException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EnrichMode Tests")
+class EnrichModeTest {
+
+    @Test
+    @DisplayName("Should parse modes whatever their case")
+    void testOf() {
+        assertEquals(EnrichMode.LIVE, EnrichMode.of("live"));
+        assertEquals(EnrichMode.SNAPSHOT, EnrichMode.of(" Snapshot "));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown mode as a bad request")
+    void testOf_Unknown() {
+        InvalidParameterException exception =
+                assertThrows(InvalidParameterException.class, () -> EnrichMode.of("fresh"));
+
+        assertTrue(exception.getMessage().contains("fresh"));
+        assertEquals(HttpStatus.BAD_REQUEST,
+                InvalidParameterException.class.getAnnotation(ResponseStatus.class).value());
+        assertThrows(InvalidParameterException.class, () -> EnrichMode.of(null));
+    }
+}
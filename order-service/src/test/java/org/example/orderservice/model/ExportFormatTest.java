@@ -0,0 +1,28 @@
+package org.example.orderservice.model;
+
+import org.example.orderservice.exception.InvalidParameterException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ExportFormat Tests")
+class ExportFormatTest {
+
+    @Test
+    @DisplayName("Should parse formats whatever their case")
+    void testOf() {
+        assertEquals(ExportFormat.CSV, ExportFormat.of("CSV"));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.of("ndjson"));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown format as a bad request")
+    void testOf_Unknown() {
+        InvalidParameterException exception =
+                assertThrows(InvalidParameterException.class, () -> ExportFormat.of("xlsx"));
+
+        assertTrue(exception.getMessage().contains("xlsx"));
+        assertThrows(InvalidParameterException.class, () -> ExportFormat.of(null));
+    }
+}
@@ -0,0 +1,321 @@
+package org.example.orderservice.repository;
+
+import org.example.orderservice.entity.Enum.OrderStatus;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.OrderLineView;
+import org.example.orderservice.model.OrderSummary;
+import org.example.orderservice.model.OrderTotalDrift;
+import org.example.orderservice.model.OrderView;
+import org.example.orderservice.model.VersionWatermark;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderRepository Tests")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Order order1;
+    private Order order2;
+    private Order order3;
+
+    @BeforeEach
+    void setUp() {
+        order1 = newOrder("alice", 2);
+        order2 = newOrder("bob", 1);
+        order3 = newOrder("alice", 3);
+        orderRepository.saveAll(List.of(order1, order2, order3));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should find all orders of a user")
+    void testFindByUserId() {
+        Slice<Order> orders = orderRepository.findByUserId("alice", PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(2, orders.getNumberOfElements());
+    }
+
+    @Test
+    @DisplayName("Should return a slice of orders with offset pagination")
+    void testFindBySlice() {
+        Slice<Order> firstPage = orderRepository.findBy(PageRequest.of(0, 2, Sort.by("id")));
+
+        assertEquals(2, firstPage.getNumberOfElements());
+        assertTrue(firstPage.hasNext());
+        assertEquals(order1.getId(), firstPage.getContent().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should return orders after the given id with keyset pagination")
+    void testFindByIdGreaterThan() {
+        Slice<Order> nextPage = orderRepository.findByIdGreaterThan(order1.getId(), PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(2, nextPage.getNumberOfElements());
+        assertEquals(order2.getId(), nextPage.getContent().get(0).getId());
+        assertFalse(nextPage.hasNext());
+    }
+
+    @Test
+    @DisplayName("Should page through the orders of a user with keyset pagination")
+    void testFindByUserIdAndIdGreaterThan() {
+        Slice<Order> firstPage = orderRepository.findByUserId("alice", PageRequest.of(0, 1, Sort.by("id")));
+        Slice<Order> nextPage = orderRepository.findByUserIdAndIdGreaterThan("alice",
+                firstPage.getContent().get(0).getId(), PageRequest.of(0, 1, Sort.by("id")));
+
+        assertTrue(firstPage.hasNext());
+        assertEquals(order1.getId(), firstPage.getContent().get(0).getId());
+        assertEquals(order3.getId(), nextPage.getContent().get(0).getId());
+        assertFalse(nextPage.hasNext());
+    }
+
+    @Test
+    @DisplayName("Should list a page of 100 orders with their lines in two SQL statements")
+    void testFindBy_NoNPlusOne() {
+        saveOrders(1_000, "bulk");
+        Statistics statistics = statistics();
+
+        Slice<Order> orders = orderRepository.findBy(PageRequest.of(0, 100, Sort.by("id")));
+        int lines = orders.stream().mapToInt(order -> order.getOrderLines().size()).sum();
+
+        assertEquals(100, orders.getNumberOfElements());
+        assertEquals(200, lines);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should load a keyset page of a user's orders with their lines in two SQL statements")
+    void testFindByUserIdAndIdGreaterThan_NoNPlusOne() {
+        saveOrders(1_000, "bulk");
+        Statistics statistics = statistics();
+
+        Slice<Order> orders = orderRepository.findByUserIdAndIdGreaterThan("bulk", 0L, PageRequest.of(0, 100, Sort.by("id")));
+        orders.forEach(order -> order.getOrderLines().size());
+
+        assertEquals(100, orders.getNumberOfElements());
+        assertTrue(orders.hasNext());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should load one order with its lines in a single SQL statement")
+    void testFindWithOrderLinesById() {
+        Statistics statistics = statistics();
+
+        Order order = orderRepository.findWithOrderLinesById(order3.getId()).orElseThrow();
+
+        assertEquals(3, order.getOrderLines().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should batch the line queries of a page of orders")
+    void testFindBySlice_BatchFetchesLines() {
+        saveOrders(1_000, "bulk");
+        Statistics statistics = statistics();
+
+        Slice<Order> page = orderRepository.findBy(PageRequest.of(0, 100, Sort.by("id")));
+        page.forEach(order -> order.getOrderLines().size());
+
+        assertEquals(100, page.getNumberOfElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should keep the stored total in step with the lines")
+    void testStoredTotalAmount() {
+        Order order = orderRepository.findById(order3.getId()).orElseThrow();
+
+        assertEquals(60.0, order.getTotalAmount(), 0.001);
+        assertTrue(orderRepository.findTotalDrift(0.005).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report orders whose stored total drifted from their lines")
+    void testFindTotalDrift() {
+        Order order = orderRepository.findById(order1.getId()).orElseThrow();
+        order.adjustTotalAmount(5.0);
+        entityManager.flush();
+
+        List<OrderTotalDrift> drifts = orderRepository.findTotalDrift(0.005);
+
+        assertEquals(1, drifts.size());
+        assertEquals(order1.getId(), drifts.get(0).getOrderId());
+        assertEquals(35.0, drifts.get(0).getStoredTotal(), 0.001);
+        assertEquals(30.0, drifts.get(0).getComputedTotal(), 0.001);
+    }
+
+    @Test
+    void testFindWatermark_ChangesWhenOrderIsModified() {
+        saveOrders(2, "user-1");
+        saveOrders(1, "user-2");
+
+        VersionWatermark all = orderRepository.findWatermark();
+        VersionWatermark before = orderRepository.findWatermarkByUserId("user-1");
+        assertEquals(6L, all.count());
+        assertEquals(2L, before.count());
+
+        Order order = orderRepository.findByUserId("user-1", PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0);
+        order.addOrderLine(OrderLine.builder()
+                .productId(3L)
+                .productName("Product 3")
+                .unitPrice(30.0)
+                .quantity(1)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        VersionWatermark after = orderRepository.findWatermarkByUserId("user-1");
+        assertEquals(before.versionSum() + 1, after.versionSum());
+        assertNotEquals(before.toETag(), after.toETag());
+        assertEquals(0L, orderRepository.findWatermarkByUserId("nobody").count());
+    }
+
+    @Test
+    @DisplayName("Should default the version of rows written without one, so they can still be updated")
+    void testVersion_DefaultsToZero() {
+        entityManager.getEntityManager().createNativeQuery("insert into orders (id, date, status, user_id) " +
+                "values (9001, current_timestamp, 0, 'legacy')").executeUpdate();
+        entityManager.clear();
+
+        Order legacy = orderRepository.findById(9001L).orElseThrow();
+        assertEquals(0L, legacy.getVersion());
+        legacy.setStatus(OrderStatus.SHIPPED);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1L, orderRepository.findVersionById(9001L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should read an order version without loading the order")
+    void testFindVersionById() {
+        assertEquals(order1.getVersion(), orderRepository.findVersionById(order1.getId()).orElseThrow());
+        assertTrue(orderRepository.findVersionById(-1L).isEmpty());
+    }
+
+    @Test
+    void testSummarizeByUserId_GroupsByStatus() {
+        order3.setStatus(OrderStatus.CANCELLED);
+        orderRepository.save(order3);
+        entityManager.flush();
+        entityManager.clear();
+
+        OrderSummary summary = OrderSummary.of("alice", orderRepository.summarizeByUserId("alice"));
+
+        assertEquals(2, summary.getOrderCount());
+        assertEquals(30.0, summary.getTotalSpent(), 0.001);
+        assertEquals(1L, summary.getCountByStatus().get(OrderStatus.PENDING));
+        assertEquals(1L, summary.getCountByStatus().get(OrderStatus.CANCELLED));
+        assertEquals(0L, summary.getCountByStatus().get(OrderStatus.SHIPPED));
+        assertEquals(0, OrderSummary.of("nobody", orderRepository.summarizeByUserId("nobody")).getOrderCount());
+    }
+
+    @Test
+    void testSummarizeByUserId_UsesUserIdIndex() {
+        String plan = entityManager.getEntityManager()
+                .createNativeQuery("explain select status, count(*), sum(total_amount) from orders where user_id = 'alice' group by status")
+                .getSingleResult().toString().toUpperCase();
+
+        assertTrue(plan.contains("IDX_ORDERS_USER_ID"), plan);
+    }
+
+    @Test
+    void testFindViews_SelectsColumnsWithoutLoadingEntities() {
+        Statistics statistics = statistics();
+
+        Slice<OrderView> views = orderRepository.findViewsByUserId("alice", 0L, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(2, views.getNumberOfElements());
+        OrderView view = views.getContent().get(1);
+        assertEquals(order3.getId(), view.id());
+        assertEquals(3, view.lineCount());
+        assertEquals(60.0, view.totalAmount(), 0.001);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindViews_KeysetPage() {
+        Slice<OrderView> firstPage = orderRepository.findViews(0L, PageRequest.of(0, 2, Sort.by("id")));
+        Slice<OrderView> nextPage = orderRepository.findViews(firstPage.getContent().get(1).id(),
+                PageRequest.of(0, 2, Sort.by("id")));
+
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(order1.getId(), order2.getId()), firstPage.map(OrderView::id).getContent());
+        assertEquals(List.of(order3.getId()), nextPage.map(OrderView::id).getContent());
+        assertEquals(3, orderRepository.findViews(0L, Pageable.unpaged(Sort.by("id"))).getNumberOfElements());
+    }
+
+    @Test
+    void testFindOrderLineViews_WithoutLoadingOrders() {
+        Statistics statistics = statistics();
+
+        Slice<OrderLineView> views = orderLineRepository.findViews(0L, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(6, views.getNumberOfElements());
+        assertEquals(order1.getId(), views.getContent().get(0).orderId());
+        assertEquals("Product 1", views.getContent().get(0).productName());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void saveOrders(int count, String userId) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            orders.add(newOrder(userId, 2));
+        orderRepository.saveAll(orders);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private Order newOrder(String userId, int lines) {
+        Order order = Order.builder()
+                .date(new Date())
+                .status(OrderStatus.PENDING)
+                .userId(userId)
+                .build();
+        for (long productId = 1; productId <= lines; productId++) {
+            order.addOrderLine(OrderLine.builder()
+                    .productId(productId)
+                    .productName("Product " + productId)
+                    .unitPrice(10.0 * productId)
+                    .quantity(1)
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.orderservice.exception.ConcurrentOrderUpdateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OptimisticRetry Tests")
+class OptimisticRetryTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() {
+        optimisticRetry = new OptimisticRetry(transactionManager, meterRegistry,
+                3, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofMillis(5));
+    }
+
+    @Test
+    @DisplayName("Should replay the action in a new transaction after a version conflict")
+    void testExecute_RetriesOnConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticRetry.execute("add-order-line", () -> {
+            if (attempts.incrementAndGet() <= 2)
+                throw new ObjectOptimisticLockingFailureException("Order", 1L);
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        assertEquals(2, count("order.optimistic-lock.conflicts"));
+        assertEquals(2, count("order.optimistic-lock.retries"));
+        assertEquals(0, count("order.optimistic-lock.exhausted"));
+    }
+
+    @Test
+    @DisplayName("Should report a conflict once the retries are exhausted")
+    void testExecute_Exhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConcurrentOrderUpdateException.class, () -> optimisticRetry.execute("add-order-line", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Order", 1L);
+        }));
+
+        assertEquals(4, attempts.get());
+        assertEquals(4, count("order.optimistic-lock.conflicts"));
+        assertEquals(1, count("order.optimistic-lock.exhausted"));
+    }
+
+    @Test
+    @DisplayName("Should not retry other failures")
+    void testExecute_OtherFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> optimisticRetry.execute("update", () -> {
+            attempts.incrementAndGet();
+            throw new RuntimeException("Order not found with id: 1");
+        }));
+
+        assertEquals("Order not found with id: 1", exception.getMessage());
+        assertEquals(1, attempts.get());
+        assertEquals(0, count("order.optimistic-lock.retries"));
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name, "operation", "add-order-line").count();
+    }
+}
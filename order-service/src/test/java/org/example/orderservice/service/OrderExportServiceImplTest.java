@@ -0,0 +1,82 @@
+package org.example.orderservice.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.orderservice.entity.Enum.OrderStatus;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.ExportFormat;
+import org.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderExportServiceImpl Tests")
+@DataJpaTest
+class OrderExportServiceImplTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private OrderExportServiceImpl orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportServiceImpl(orderRepository, entityManager, objectMapper, 2);
+
+        for (int i = 1; i <= 5; i++) {
+            Order order = Order.builder().date(new Date()).status(OrderStatus.PENDING).userId("user-" + i).build();
+            order.addOrderLine(OrderLine.builder().productId(1L).productName("Laptop, 15\"").unitPrice(999.99).quantity(i).build());
+            orderRepository.save(order);
+        }
+        Order emptyOrder = Order.builder().date(new Date()).status(OrderStatus.CANCELLED).userId("user-6").build();
+        orderRepository.save(emptyOrder);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should write one JSON document per order")
+    void testExportAll_Ndjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportAll(out, ExportFormat.NDJSON);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(6, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("user-1", first.get("userId").asString());
+        assertEquals(1, first.get("orderLines").size());
+        assertEquals(0, objectMapper.readTree(lines.get(5)).get("orderLines").size());
+    }
+
+    @Test
+    @DisplayName("Should write one CSV row per order line with escaped values")
+    void testExportAll_Csv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportAll(out, ExportFormat.CSV);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(7, lines.size());
+        assertTrue(lines.get(0).startsWith("orderId,"));
+        assertTrue(lines.get(1).contains(",\"Laptop, 15\"\"\",1,999.99"));
+        assertTrue(lines.get(6).endsWith("CANCELLED,user-6,,,,,"));
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.orderservice.service;
+
+import org.example.orderservice.entity.Enum.OrderStatus;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.exception.InsufficientStockException;
+import org.example.orderservice.model.Product;
+import org.example.orderservice.repository.OrderLineRepository;
+import org.example.orderservice.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OrderLineServiceImpl Tests")
+@ExtendWith(MockitoExtension.class)
+class OrderLineServiceImplTest {
+
+    @Mock
+    private OrderLineRepository orderLineRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductLookupService productLookupService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private OrderLineServiceImpl orderLineService;
+
+    private Order order;
+    private OrderLine orderLine;
+
+    @BeforeEach
+    void setUp() {
+        order = Order.builder().id(1L).date(new Date()).status(OrderStatus.PENDING).userId("alice").build();
+        orderLine = OrderLine.builder().id(10L).productId(1L).quantity(3).unitPrice(10.0).build();
+        order.addOrderLine(orderLine);
+    }
+
+    @Test
+    @DisplayName("Should reserve only the added quantity when a line grows")
+    void testUpdate_MoreQuantity() {
+        when(orderLineRepository.findById(10L)).thenReturn(Optional.of(orderLine));
+
+        orderLineService.update(10L, OrderLine.builder().quantity(5).build());
+
+        assertStock(reserved(), 1L, 2);
+        verify(stockService, never()).release(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should release only the removed quantity when a line shrinks")
+    void testUpdate_LessQuantity() {
+        when(orderLineRepository.findById(10L)).thenReturn(Optional.of(orderLine));
+
+        orderLineService.update(10L, OrderLine.builder().quantity(1).build());
+
+        assertStock(released(), 1L, 2);
+        verify(stockService, never()).reserve(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should move the reservation to the new product")
+    void testUpdate_OtherProduct() {
+        when(orderLineRepository.findById(10L)).thenReturn(Optional.of(orderLine));
+        when(productLookupService.findById(2L)).thenReturn(product(2L));
+
+        orderLineService.update(10L, OrderLine.builder().productId(2L).build());
+
+        assertStock(reserved(), 2L, 3);
+        assertStock(released(), 1L, 3);
+    }
+
+    @Test
+    @DisplayName("Should bump the order version when only the product changes")
+    void testUpdate_OtherProductSamePrice() {
+        Product product = product(2L);
+        product.setPrice(10.0);
+        when(orderLineRepository.findById(10L)).thenReturn(Optional.of(orderLine));
+        when(productLookupService.findById(2L)).thenReturn(product);
+
+        orderLineService.update(10L, OrderLine.builder().productId(2L).build());
+
+        assertEquals(30.0, order.getTotalAmount());
+        verify(entityManager, times(1)).lock(order, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    @Test
+    @DisplayName("Should leave the order alone when the line does not change")
+    void testUpdate_Unchanged() {
+        when(orderLineRepository.findById(10L)).thenReturn(Optional.of(orderLine));
+
+        orderLineService.update(10L, OrderLine.builder().productId(1L).quantity(3).build());
+
+        verifyNoInteractions(stockService, entityManager);
+    }
+
+    @Test
+    @DisplayName("Should fail the update when the added quantity is out of stock")
+    void testUpdate_InsufficientStock() {
+        when(orderLineRepository.findById(10L)).thenReturn(Optional.of(orderLine));
+        doThrow(new InsufficientStockException("Insufficient stock for order"))
+                .when(stockService).reserve(anyCollection());
+
+        assertThrows(InsufficientStockException.class,
+                () -> orderLineService.update(10L, OrderLine.builder().quantity(50).build()));
+        verify(stockService, never()).release(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should release the stock of a deleted line")
+    void testDeleteById_ReleasesStock() {
+        when(orderLineRepository.findById(10L)).thenReturn(Optional.of(orderLine));
+
+        orderLineService.deleteById(10L);
+
+        verify(stockService, times(1)).release(List.of(orderLine));
+        verify(entityManager, times(1)).lock(order, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        assertTrue(order.getOrderLines().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not touch stock for a line outside any order")
+    void testDeleteById_Orphan() {
+        OrderLine orphan = OrderLine.builder().id(11L).productId(1L).quantity(3).build();
+        when(orderLineRepository.findById(11L)).thenReturn(Optional.of(orphan));
+
+        orderLineService.deleteById(11L);
+
+        verifyNoInteractions(stockService);
+    }
+
+    private Collection<OrderLine> reserved() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<OrderLine>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(stockService, times(1)).reserve(captor.capture());
+        return captor.getValue();
+    }
+
+    private Collection<OrderLine> released() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<OrderLine>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(stockService, times(1)).release(captor.capture());
+        return captor.getValue();
+    }
+
+    private static void assertStock(Collection<OrderLine> lines, Long productId, int quantity) {
+        assertEquals(1, lines.size());
+        OrderLine line = lines.iterator().next();
+        assertEquals(productId, line.getProductId());
+        assertEquals(quantity, line.getQuantity());
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(20.0);
+        return product;
+    }
+}
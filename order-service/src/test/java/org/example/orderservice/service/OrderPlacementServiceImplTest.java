@@ -0,0 +1,167 @@
+package org.example.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.orderservice.entity.Enum.OrderStatus;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.OrderBatchResult;
+import org.example.orderservice.model.OrderPlacement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OrderPlacementServiceImpl Tests")
+@ExtendWith(MockitoExtension.class)
+class OrderPlacementServiceImplTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderPlacementServiceImpl orderPlacementService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (orderPlacementService != null)
+            orderPlacementService.stop();
+    }
+
+    @Test
+    @DisplayName("Should queue an order and report it as created once persisted")
+    void testSubmit_Created() {
+        when(orderService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            List<OrderBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++)
+                results.add(OrderBatchResult.created(i, 100L + i));
+            return results;
+        });
+        orderPlacementService = newService(10, 1);
+
+        OrderPlacement placement = orderPlacementService.submit(newOrder(1L));
+
+        assertEquals(OrderPlacement.Status.QUEUED, placement.getStatus());
+        OrderPlacement completed = awaitCompletion(placement.getId());
+        assertEquals(OrderPlacement.Status.CREATED, completed.getStatus());
+        assertEquals(100L, completed.getOrderId());
+        assertNotNull(completed.getCompletedAt());
+        // Le statut renvoyé à la soumission n'est jamais modifié par le worker
+        assertEquals(OrderPlacement.Status.QUEUED, placement.getStatus());
+        assertNull(placement.getOrderId());
+    }
+
+    @Test
+    @DisplayName("Should report the error of an order that could not be placed")
+    void testSubmit_Failed() {
+        when(orderService.saveAll(anyList()))
+                .thenReturn(List.of(OrderBatchResult.failed(0, "Product not found with id: 9")));
+        orderPlacementService = newService(10, 1);
+
+        OrderPlacement placement = orderPlacementService.submit(newOrder(9L));
+
+        OrderPlacement completed = awaitCompletion(placement.getId());
+        assertEquals(OrderPlacement.Status.FAILED, completed.getStatus());
+        assertEquals("Product not found with id: 9", completed.getError());
+    }
+
+    @Test
+    @DisplayName("Should mark the whole batch as failed when placing it throws")
+    void testSubmit_BatchThrows() {
+        when(orderService.saveAll(anyList())).thenThrow(new RuntimeException("product-service unavailable"));
+        orderPlacementService = newService(10, 1);
+
+        OrderPlacement placement = orderPlacementService.submit(newOrder(1L));
+
+        OrderPlacement completed = awaitCompletion(placement.getId());
+        assertEquals(OrderPlacement.Status.FAILED, completed.getStatus());
+        assertEquals("product-service unavailable", completed.getError());
+    }
+
+    @Test
+    @DisplayName("Should reject orders when the queue is full")
+    void testSubmit_QueueFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.saveAll(anyList())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of(OrderBatchResult.created(0, 1L));
+        });
+        orderPlacementService = newService(1, 1);
+
+        orderPlacementService.submit(newOrder(1L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        OrderPlacement queued = orderPlacementService.submit(newOrder(1L));
+        OrderPlacement rejected = orderPlacementService.submit(newOrder(1L));
+
+        assertEquals(OrderPlacement.Status.QUEUED, queued.getStatus());
+        assertEquals(OrderPlacement.Status.QUEUED, orderPlacementService.findById(queued.getId()).getStatus());
+        assertEquals(OrderPlacement.Status.REJECTED, rejected.getStatus());
+        assertThrows(RuntimeException.class, () -> orderPlacementService.findById(rejected.getId()));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should validate the order before queuing it")
+    void testSubmit_Invalid() {
+        orderPlacementService = newService(10, 1);
+        Order order = newOrder(1L);
+        order.getOrderLines().get(0).setQuantity(0);
+
+        assertThrows(RuntimeException.class, () -> orderPlacementService.submit(order));
+        assertThrows(RuntimeException.class, () -> orderPlacementService.submit(
+                Order.builder().status(OrderStatus.PENDING).build()));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when placement does not exist")
+    void testFindById_NotFound() {
+        orderPlacementService = newService(10, 1);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderPlacementService.findById("unknown"));
+        assertEquals("Order placement not found with id: unknown", exception.getMessage());
+    }
+
+    private OrderPlacementServiceImpl newService(int queueCapacity, int workers) {
+        OrderPlacementServiceImpl service = new OrderPlacementServiceImpl(orderService, new SimpleMeterRegistry(),
+                queueCapacity, workers, 10, Duration.ofMinutes(1));
+        service.start();
+        return service;
+    }
+
+    private OrderPlacement awaitCompletion(String id) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            OrderPlacement placement = orderPlacementService.findById(id);
+            if (placement.getStatus() != OrderPlacement.Status.QUEUED)
+                return placement;
+            Thread.onSpinWait();
+        }
+        return fail("Placement " + id + " was not completed");
+    }
+
+    private Order newOrder(Long productId) {
+        Order order = Order.builder()
+                .date(new Date())
+                .status(OrderStatus.PENDING)
+                .userId("alice")
+                .build();
+        order.getOrderLines().add(OrderLine.builder().productId(productId).quantity(1).build());
+        return order;
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.orderservice.service;
+
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.orderservice.entity.Enum.OrderStatus;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.entity.SalesRollup;
+import org.example.orderservice.exception.InsufficientStockException;
+import org.example.orderservice.model.OrderBatchResult;
+import org.example.orderservice.model.Product;
+import org.example.orderservice.model.ProductSales;
+import org.example.orderservice.repository.OrderLineRepository;
+import org.example.orderservice.repository.OrderRepository;
+import org.example.orderservice.repository.SalesRollupRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OrderServiceImpl Tests")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+class OrderServiceImplTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProductLookupService productLookupService;
+
+    private StockService stockService;
+
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        productLookupService = mock(ProductLookupService.class);
+        when(productLookupService.findAllById(anyCollection())).thenReturn(Map.of(
+                1L, product(1L, "Laptop", 999.99),
+                2L, product(2L, "Mouse", 25.0)));
+        stockService = mock(StockService.class);
+        when(productLookupService.findById(anyLong()))
+                .thenAnswer(invocation -> product(invocation.getArgument(0), "Product", 10.0));
+        optimisticRetry = new OptimisticRetry(transactionManager, meterRegistry,
+                20, Duration.ofMillis(5), Duration.ofMillis(5), Duration.ofMillis(50));
+        orderService = new OrderServiceImpl(orderRepository, orderLineRepository, productLookupService,
+                stockService, optimisticRetry,
+                new SalesRollupServiceImpl(salesRollupRepository, orderLineRepository, transactionManager, "UTC", 100),
+                entityManager, transactionManager, 100);
+    }
+
+    @Test
+    @DisplayName("Should create every order of a batch with a single product lookup")
+    void testSaveAll() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 250; i++)
+            orders.add(newOrder(1L, 2L));
+
+        List<OrderBatchResult> results = orderService.saveAll(orders);
+
+        assertEquals(250, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == OrderBatchResult.Status.CREATED));
+        assertEquals(250, orderRepository.count());
+        Order saved = orderRepository.findWithOrderLinesById(results.get(0).getOrderId()).orElseThrow();
+        assertEquals(999.99 + 2 * 25.0, saved.getTotalAmount(), 0.001);
+        assertEquals("Laptop", saved.getOrderLines().get(0).getProductName());
+        verify(productLookupService, times(1)).findAllById(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should roll up the sales of a batch per day and product")
+    void testSaveAll_RollsUpSales() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            orders.add(newOrder(1L, 2L));
+
+        orderService.saveAll(orders);
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<ProductSales> sales = salesRollupRepository.findProductSales(today.minusDays(1), today.plusDays(1));
+        assertEquals(2, sales.size());
+        assertEquals(1L, sales.get(0).getProductId());
+        assertEquals(100L, sales.get(0).getQuantity());
+        assertEquals(100 * 999.99, sales.get(0).getRevenue(), 0.01);
+        assertEquals(200L, sales.get(1).getQuantity());
+        assertEquals(100 * 2 * 25.0, sales.get(1).getRevenue(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Should insert orders and lines in JDBC batches")
+    void testSaveAll_BatchesInserts() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            orders.add(newOrder(1L, 2L));
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        orderService.saveAll(orders);
+
+        // 100 commandes + 200 lignes, regroupées par 50, plus quelques appels de séquence
+        assertEquals(300, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 20,
+                "expected batched inserts but got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    @DisplayName("Should report orders with unknown products without failing the batch")
+    void testSaveAll_UnknownProduct() {
+        List<OrderBatchResult> results = orderService.saveAll(List.of(newOrder(1L), newOrder(3L), newOrder(2L)));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("Product not found with id: 3", results.get(1).getError());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(2).getStatus());
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should report orders whose stock could not be reserved")
+    void testSaveAll_InsufficientStock() {
+        Order outOfStock = newOrder(2L);
+        doThrow(new InsufficientStockException("Insufficient stock for order"))
+                .when(stockService).reserve(outOfStock.getOrderLines());
+
+        List<OrderBatchResult> results = orderService.saveAll(List.of(newOrder(1L), outOfStock));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("Insufficient stock for order", results.get(1).getError());
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should reserve the stock of the whole order in one call")
+    void testSave_ReservesStock() {
+        Order order = newOrder(1L, 2L);
+        List<OrderLine> orderLines = List.copyOf(order.getOrderLines());
+
+        orderService.save(order);
+
+        verify(stockService, times(1)).reserve(orderLines);
+        assertEquals(999.99 + 2 * 25.0, order.getTotalAmount(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should not persist the order when stock is insufficient")
+    void testSave_InsufficientStock() {
+        Order order = newOrder(1L);
+        doThrow(new InsufficientStockException("Insufficient stock for order"))
+                .when(stockService).reserve(anyCollection());
+
+        assertThrows(InsufficientStockException.class, () -> orderService.save(order));
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should release the stock of a deleted order")
+    void testDeleteById_ReleasesStock() {
+        Order order = newOrder(1L, 2L);
+        orderService.save(order);
+        List<OrderLine> orderLines = List.copyOf(order.getOrderLines());
+
+        orderService.deleteById(order.getId());
+
+        verify(stockService, times(1)).release(orderLines);
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep every line when the same order is filled in parallel")
+    void testAddOrderLine_Concurrent() throws Exception {
+        Order order = orderRepository.save(newOrder());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Order>> futures = new ArrayList<>();
+            for (long productId = 1; productId <= threads; productId++) {
+                OrderLine orderLine = OrderLine.builder().productId(productId).quantity(1).build();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.addOrderLine(order.getId(), orderLine);
+                }));
+            }
+            start.countDown();
+            for (Future<Order> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+
+            Order saved = orderRepository.findWithOrderLinesById(order.getId()).orElseThrow();
+            assertEquals(threads, saved.getOrderLines().size());
+            assertEquals(threads * 10.0, saved.getTotalAmount(), 0.001);
+            assertEquals(threads, saved.getVersion());
+            assertEquals(meterRegistry.counter("order.optimistic-lock.conflicts", "operation", "add-order-line").count(),
+                    meterRegistry.counter("order.optimistic-lock.retries", "operation", "add-order-line").count());
+            // Les tentatives annulées ne sont pas comptées dans les agrégats
+            assertEquals(threads, salesRollupRepository.findAll().stream().mapToLong(SalesRollup::getQuantity).sum());
+        } finally {
+            executor.shutdownNow();
+            orderRepository.deleteAll();
+            salesRollupRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @DisplayName("Should default and then backfill the total of orders written without one")
+    void testBackfill_LegacyOrder() {
+        entityManager.createNativeQuery("insert into orders (id, date, status, user_id, version) " +
+                "values (9001, current_timestamp, 0, 'legacy', 0)").executeUpdate();
+        entityManager.createNativeQuery("insert into order_lines (id, order_id, product_id, quantity, unit_price) " +
+                "values (9001, 9001, 1, 3, 10.0)").executeUpdate();
+        entityManager.clear();
+        assertEquals(0.0, orderRepository.findById(9001L).orElseThrow().getTotalAmount());
+        entityManager.clear();
+
+        new OrderTotalBackfill(orderService, true).backfill();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(30.0, orderRepository.findById(9001L).orElseThrow().getTotalAmount(), 0.001);
+        assertTrue(orderService.findTotalDrift().isEmpty());
+    }
+
+    private Order newOrder(Long... productIds) {
+        Order order = Order.builder()
+                .date(new Date())
+                .status(OrderStatus.PENDING)
+                .userId("importer")
+                .build();
+        for (int i = 0; i < productIds.length; i++)
+            order.getOrderLines().add(OrderLine.builder().productId(productIds[i]).quantity(i + 1).build());
+        return order;
+    }
+
+    private Product product(Long id, String name, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+}
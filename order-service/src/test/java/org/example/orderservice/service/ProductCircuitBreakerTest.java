@@ -0,0 +1,214 @@
+package org.example.orderservice.service;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.orderservice.exception.ProductServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductCircuitBreaker Tests")
+class ProductCircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private ProductCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new ProductCircuitBreaker(new SimpleMeterRegistry(), 2, Duration.ofMillis(10), 4, 4, 50,
+                Duration.ofSeconds(1), 75, Duration.ofSeconds(10), clock::get);
+    }
+
+    @Test
+    @DisplayName("Should open once the failure rate crosses the threshold and reject calls")
+    void testCall_OpensOnFailures() {
+        succeed();
+        succeed();
+        fail();
+        assertEquals(ProductCircuitBreaker.State.CLOSED, breaker.getState());
+        fail();
+
+        assertEquals(ProductCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(ProductServiceUnavailableException.class, this::succeed);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should open once too many calls are slow")
+    void testCall_OpensOnSlowCalls() {
+        for (int i = 0; i < 3; i++)
+            breaker.call(() -> clock.addAndGet(Duration.ofSeconds(2).toNanos()));
+        assertEquals(ProductCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.call(() -> clock.addAndGet(Duration.ofSeconds(2).toNanos()));
+
+        assertEquals(ProductCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should not count client errors as failures")
+    void testCall_ClientErrorsIgnored() {
+        Request request = Request.create(Request.HttpMethod.GET, "/products/1", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        for (int i = 0; i < 4; i++)
+            assertThrows(FeignException.NotFound.class, () -> breaker.call(() -> {
+                throw new FeignException.NotFound("not found", request, null, Map.of());
+            }));
+
+        assertEquals(ProductCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should close again after a successful probe once the open duration elapsed")
+    void testCall_HalfOpenProbeCloses() {
+        openBreaker();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(ProductCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        succeed();
+
+        assertEquals(ProductCircuitBreaker.State.CLOSED, breaker.getState());
+        succeed();
+    }
+
+    @Test
+    @DisplayName("Should open again when the probe fails")
+    void testCall_HalfOpenProbeFails() {
+        openBreaker();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        fail();
+
+        assertEquals(ProductCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(ProductServiceUnavailableException.class, this::succeed);
+    }
+
+    @Test
+    @DisplayName("Should let a single probe through while half-open")
+    void testCall_SingleProbe() throws Exception {
+        openBreaker();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        CountDownLatch probing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> probe = caller.submit(() -> breaker.call(() -> {
+                probing.countDown();
+                await(release);
+                return "ok";
+            }));
+            probing.await();
+
+            assertThrows(ProductServiceUnavailableException.class, this::succeed);
+            release.countDown();
+            assertEquals("ok", probe.get());
+        } finally {
+            caller.shutdownNow();
+        }
+        assertEquals(ProductCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should let only the probe decide the half-open outcome, not a call started while closed")
+    void testCall_LateCallIsNotTheProbe() throws Exception {
+        CountDownLatch lateStarted = new CountDownLatch(1);
+        CountDownLatch releaseLate = new CountDownLatch(1);
+        CountDownLatch probing = new CountDownLatch(1);
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> late = callers.submit(() -> breaker.run(() -> {
+                lateStarted.countDown();
+                await(releaseLate);
+                throw new RuntimeException("product-service unavailable");
+            }));
+            lateStarted.await();
+            openBreaker();
+            clock.addAndGet(Duration.ofSeconds(10).toNanos());
+            Future<String> probe = callers.submit(() -> breaker.call(() -> {
+                probing.countDown();
+                await(releaseProbe);
+                return "ok";
+            }));
+            probing.await();
+
+            releaseLate.countDown();
+            assertThrows(Exception.class, late::get);
+            assertEquals(ProductCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+            releaseProbe.countDown();
+            assertEquals("ok", probe.get());
+        } finally {
+            releaseLate.countDown();
+            releaseProbe.countDown();
+            callers.shutdownNow();
+        }
+        assertEquals(ProductCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should reject calls beyond the bulkhead limit")
+    void testCall_BulkheadFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++)
+                callers.submit(() -> breaker.call(() -> {
+                    started.countDown();
+                    await(release);
+                    return "ok";
+                }));
+            started.await();
+
+            ProductServiceUnavailableException exception =
+                    assertThrows(ProductServiceUnavailableException.class, this::succeed);
+            assertEquals("Too many concurrent calls to product-service", exception.getMessage());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+        assertEquals(ProductCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++)
+            fail();
+        assertEquals(ProductCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void succeed() {
+        breaker.run(calls::incrementAndGet);
+    }
+
+    private void fail() {
+        assertThrows(RuntimeException.class, () -> breaker.run(() -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("product-service unavailable");
+        }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package org.example.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.exception.ProductServiceUnavailableException;
+import org.example.orderservice.model.EnrichMode;
+import org.example.orderservice.model.Product;
+import org.example.orderservice.web.ProductClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductLookupServiceImpl Tests")
+class ProductLookupServiceImplTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private Cache<Long, Product> productCache;
+
+    private Cache<Long, Product> productSnapshots;
+
+    private ProductCircuitBreaker productCircuitBreaker;
+
+    private ExecutorService productLookupExecutor;
+
+    private ProductLookupServiceImpl productLookupService;
+
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        productCache = Caffeine.newBuilder().maximumSize(100).build();
+        productSnapshots = Caffeine.newBuilder().maximumSize(100).build();
+        productCircuitBreaker = new ProductCircuitBreaker(new SimpleMeterRegistry(), 4, Duration.ofMillis(50),
+                4, 2, 50, Duration.ofSeconds(10), 100, Duration.ofMinutes(1));
+        productLookupExecutor = Executors.newFixedThreadPool(4);
+        productLookupService = new ProductLookupServiceImpl(productClient, productCache, productSnapshots,
+                productCircuitBreaker, productLookupExecutor, 2, Duration.ofMillis(500), new SimpleMeterRegistry());
+
+        product1 = new Product();
+        product1.setId(1L);
+        product1.setName("Laptop");
+        product1.setPrice(999.99);
+
+        product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Mouse");
+        product2.setPrice(29.99);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productLookupExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should fetch each distinct product once for many order lines")
+    void testEnrich_SingleBatchCall() {
+        List<OrderLine> orderLines = Arrays.asList(
+                OrderLine.builder().productId(1L).quantity(1).build(),
+                OrderLine.builder().productId(2L).quantity(3).build(),
+                OrderLine.builder().productId(1L).quantity(2).build());
+        when(productClient.getProductsByIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
+
+        productLookupService.enrich(orderLines, EnrichMode.LIVE);
+
+        assertEquals("Laptop", orderLines.get(0).getProduct().getName());
+        assertEquals("Mouse", orderLines.get(1).getProduct().getName());
+        assertSame(orderLines.get(0).getProduct(), orderLines.get(2).getProduct());
+        verify(productClient, times(1)).getProductsByIds(any());
+        verify(productClient, never()).getProductById(any());
+    }
+
+    @Test
+    @DisplayName("Should split large id sets into batch-size chunks")
+    void testFindAllById_Chunked() {
+        Product product3 = new Product();
+        product3.setId(3L);
+        when(productClient.getProductsByIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
+        when(productClient.getProductsByIds(List.of(3L))).thenReturn(List.of(product3));
+
+        Map<Long, Product> products = productLookupService.findAllById(Arrays.asList(1L, 2L, 3L, 2L));
+
+        assertEquals(3, products.size());
+        verify(productClient, times(2)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("Should leave product null when it no longer exists")
+    void testEnrich_MissingProduct() {
+        OrderLine orderLine = OrderLine.builder().productId(999L).quantity(1).build();
+        when(productClient.getProductsByIds(List.of(999L))).thenReturn(List.of());
+
+        productLookupService.enrich(List.of(orderLine), EnrichMode.LIVE);
+
+        assertNull(orderLine.getProduct());
+    }
+
+    @Test
+    @DisplayName("Should throw RuntimeException when a single product is not found")
+    void testFindById_NotFound() {
+        when(productClient.getProductsByIds(List.of(999L))).thenReturn(List.of());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> productLookupService.findById(999L));
+
+        assertEquals("Product not found with id: 999", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should serve cached products without calling product-service again")
+    void testFindAllById_CacheHit() {
+        when(productClient.getProductsByIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
+
+        productLookupService.findAllById(Arrays.asList(1L, 2L));
+        Map<Long, Product> products = productLookupService.findAllById(Arrays.asList(2L, 1L));
+
+        assertEquals(2, products.size());
+        verify(productClient, times(1)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("Should only fetch the ids missing from the cache")
+    void testFindAllById_PartialHit() {
+        productCache.put(1L, product1);
+        when(productClient.getProductsByIds(List.of(2L))).thenReturn(List.of(product2));
+
+        Map<Long, Product> products = productLookupService.findAllById(Arrays.asList(1L, 2L));
+
+        assertEquals(2, products.size());
+        verify(productClient, times(1)).getProductsByIds(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("Should fetch again after the product is evicted")
+    void testEvict() {
+        when(productClient.getProductsByIds(List.of(1L))).thenReturn(List.of(product1));
+
+        productLookupService.findById(1L);
+        productLookupService.evict(1L);
+        productLookupService.findById(1L);
+
+        verify(productClient, times(2)).getProductsByIds(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Should fetch chunks concurrently")
+    void testFindAllById_ChunksInParallel() {
+        CountDownLatch bothChunksStarted = new CountDownLatch(2);
+        when(productClient.getProductsByIds(any())).thenAnswer(invocation -> {
+            bothChunksStarted.countDown();
+            bothChunksStarted.await();
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> {
+                Product product = new Product();
+                product.setId(id);
+                return product;
+            }).toList();
+        });
+
+        Map<Long, Product> products = productLookupService.findAllById(Arrays.asList(1L, 2L, 3L, 4L));
+
+        assertEquals(4, products.size());
+        verify(productClient, times(2)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("Should keep product null for lines whose chunk failed during enrichment")
+    void testEnrich_PartialFailure() {
+        List<OrderLine> orderLines = Arrays.asList(
+                OrderLine.builder().productId(1L).quantity(1).build(),
+                OrderLine.builder().productId(2L).quantity(1).build(),
+                OrderLine.builder().productId(3L).quantity(1).build());
+        when(productClient.getProductsByIds(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
+        when(productClient.getProductsByIds(List.of(3L))).thenThrow(new RuntimeException("product-service unavailable"));
+
+        productLookupService.enrich(orderLines, EnrichMode.LIVE);
+
+        assertEquals("Laptop", orderLines.get(0).getProduct().getName());
+        assertEquals("Mouse", orderLines.get(1).getProduct().getName());
+        assertNull(orderLines.get(2).getProduct());
+    }
+
+    @Test
+    @DisplayName("Should stop waiting for slow chunks once the enrichment deadline passes")
+    void testEnrich_Deadline() {
+        OrderLine orderLine = OrderLine.builder().productId(1L).quantity(1).build();
+        when(productClient.getProductsByIds(List.of(1L))).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of(product1);
+        });
+
+        long start = System.nanoTime();
+        productLookupService.enrich(List.of(orderLine), EnrichMode.LIVE);
+
+        assertNull(orderLine.getProduct());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+    }
+
+    @Test
+    @DisplayName("Should propagate failures of direct lookups")
+    void testFindAllById_Failure() {
+        when(productClient.getProductsByIds(List.of(1L))).thenThrow(new RuntimeException("product-service unavailable"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> productLookupService.findById(1L));
+
+        assertEquals("product-service unavailable", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the last known product when product-service fails")
+    void testFindById_FallbackToSnapshot() {
+        when(productClient.getProductsByIds(List.of(1L)))
+                .thenReturn(List.of(product1))
+                .thenThrow(new RuntimeException("product-service unavailable"));
+        productLookupService.findById(1L);
+        productCache.invalidateAll();
+
+        Product product = productLookupService.findById(1L);
+
+        assertEquals("Laptop", product.getName());
+        verify(productClient, times(2)).getProductsByIds(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Should stop calling product-service once the circuit breaker opens")
+    void testFindById_BreakerOpen() {
+        when(productClient.getProductsByIds(any())).thenThrow(new RuntimeException("product-service unavailable"));
+        assertThrows(RuntimeException.class, () -> productLookupService.findById(1L));
+        assertThrows(RuntimeException.class, () -> productLookupService.findById(2L));
+        productSnapshots.put(1L, product1);
+
+        assertEquals(ProductCircuitBreaker.State.OPEN, productCircuitBreaker.getState());
+        assertEquals("Laptop", productLookupService.findById(1L).getName());
+        assertThrows(ProductServiceUnavailableException.class, () -> productLookupService.findById(2L));
+        verify(productClient, times(2)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("Should share one in-flight call between concurrent lookups of the same product")
+    void testFindById_ConcurrentCallsCollapsed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(productClient.getProductsByIds(List.of(1L))).thenAnswer(invocation -> {
+            release.await();
+            return List.of(product1);
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Product> first = callers.submit(() -> productLookupService.findById(1L));
+            Future<Product> second = callers.submit(() -> productLookupService.findById(1L));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertEquals("Laptop", first.get().getName());
+            assertEquals("Laptop", second.get().getName());
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(productClient, times(1)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("Should build products from the stored snapshot without calling product-service")
+    void testEnrich_Snapshot() {
+        OrderLine orderLine = OrderLine.builder().productId(1L).productName("Laptop").unitPrice(899.99).quantity(1).build();
+
+        productLookupService.enrich(List.of(orderLine), EnrichMode.SNAPSHOT);
+
+        assertEquals(1L, orderLine.getProduct().getId());
+        assertEquals("Laptop", orderLine.getProduct().getName());
+        assertEquals(899.99, orderLine.getProduct().getPrice());
+        verifyNoInteractions(productClient);
+    }
+
+    @Test
+    @DisplayName("Should leave product null without calling product-service")
+    void testEnrich_None() {
+        OrderLine orderLine = OrderLine.builder().productId(1L).productName("Laptop").unitPrice(899.99).quantity(1).build();
+
+        productLookupService.enrich(List.of(orderLine), EnrichMode.NONE);
+
+        assertNull(orderLine.getProduct());
+        verifyNoInteractions(productClient);
+    }
+}
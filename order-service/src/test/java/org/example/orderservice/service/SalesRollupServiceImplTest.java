@@ -0,0 +1,186 @@
+package org.example.orderservice.service;
+
+import org.example.orderservice.entity.Enum.OrderStatus;
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.model.DailySales;
+import org.example.orderservice.model.ProductSales;
+import org.example.orderservice.repository.OrderLineRepository;
+import org.example.orderservice.repository.OrderRepository;
+import org.example.orderservice.repository.SalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SalesRollupServiceImpl Tests")
+@DataJpaTest
+class SalesRollupServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private SalesRollupServiceImpl salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        salesRollupService = new SalesRollupServiceImpl(salesRollupRepository, orderLineRepository,
+                transactionManager, "UTC", 2);
+    }
+
+    @Test
+    @DisplayName("Should add and subtract line deltas per day and product")
+    void testRecordAddedAndRemoved() {
+        Order order = newOrder(DAY, line(1L, 2, 10.0), line(2L, 1, 5.0), line(1L, 1, 10.0));
+        salesRollupService.recordAdded(order, order.getOrderLines());
+        salesRollupService.recordRemoved(order, List.of(order.getOrderLines().get(2)));
+
+        List<ProductSales> sales = salesRollupService.findProductSales(DAY, DAY);
+
+        assertEquals(2, sales.size());
+        assertEquals(1L, sales.get(0).getProductId());
+        assertEquals(2L, sales.get(0).getQuantity());
+        assertEquals(20.0, sales.get(0).getRevenue(), 0.001);
+        assertEquals(5.0, sales.get(1).getRevenue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should replace the previous quantity and product of a changed line")
+    void testRecordChanged() {
+        Order order = newOrder(DAY, line(1L, 2, 10.0));
+        salesRollupService.recordAdded(order, order.getOrderLines());
+        OrderLine orderLine = order.getOrderLines().get(0);
+        orderLine.setProductId(2L);
+        orderLine.setQuantity(3);
+
+        salesRollupService.recordChanged(orderLine, 1L, 2, 20.0);
+
+        List<ProductSales> sales = salesRollupService.findProductSales(DAY, DAY);
+        assertEquals(2L, sales.get(0).getProductId());
+        assertEquals(3L, sales.get(0).getQuantity());
+        assertEquals(0L, sales.get(1).getQuantity());
+        assertEquals(0.0, sales.get(1).getRevenue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should move the sales of an order to its new day")
+    void testRecordDateChanged() {
+        Order order = newOrder(DAY, line(1L, 2, 10.0));
+        salesRollupService.recordAdded(order, order.getOrderLines());
+        Date previousDate = order.getDate();
+        order.setDate(date(DAY.plusDays(1)));
+
+        salesRollupService.recordDateChanged(order, previousDate);
+
+        List<DailySales> daily = salesRollupService.findDailySales(DAY, DAY.plusDays(1));
+        assertEquals(2, daily.size());
+        assertEquals(0.0, daily.get(0).getRevenue(), 0.001);
+        assertEquals(DAY.plusDays(1), daily.get(1).getDay());
+        assertEquals(20.0, daily.get(1).getRevenue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the rollups from the order lines in chunks")
+    void testRebuild() {
+        orderRepository.save(newOrder(DAY, line(1L, 2, 10.0), line(2L, 1, 5.0)));
+        orderRepository.save(newOrder(DAY.plusDays(1), line(1L, 1, 10.0), line(3L, 4, 1.5)));
+        orderRepository.save(newOrder(DAY.plusDays(1), line(1L, 3, 10.0)));
+        entityManager.flush();
+        entityManager.clear();
+
+        long lines = salesRollupService.rebuild();
+
+        assertEquals(5, lines);
+        List<DailySales> daily = salesRollupService.findDailySales(DAY, DAY.plusDays(1));
+        assertEquals(25.0, daily.get(0).getRevenue(), 0.001);
+        assertEquals(3L, daily.get(0).getQuantity());
+        assertEquals(46.0, daily.get(1).getRevenue(), 0.001);
+        assertEquals(8L, daily.get(1).getQuantity());
+        assertEquals(60.0, salesRollupService.findProductSales(DAY, DAY.plusDays(1)).get(0).getRevenue(), 0.001);
+
+        // Une deuxième reconstruction repart de zéro
+        salesRollupService.rebuild();
+        assertEquals(4, salesRollupRepository.count());
+        assertEquals(25.0, salesRollupService.findDailySales(DAY, DAY).get(0).getRevenue(), 0.001);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should keep the previous rollups when a rebuild fails midway")
+    void testRebuild_FailureKeepsRollups() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.save(newOrder(DAY, line(1L, 2, 10.0), line(2L, 1, 5.0)));
+            orderRepository.save(newOrder(DAY, line(1L, 3, 10.0)));
+            salesRollupRepository.addDelta(DAY, 9L, 7, 70.0);
+        });
+        // Le deuxième lot échoue, après la suppression et l'écriture du premier
+        OrderLineRepository failingRepository = mock(OrderLineRepository.class);
+        when(failingRepository.findSalesAfter(any(), any()))
+                .thenAnswer(invocation -> orderLineRepository.findSalesAfter(invocation.getArgument(0), invocation.getArgument(1)))
+                .thenThrow(new IllegalStateException("connection lost"));
+        SalesRollupServiceImpl failingService = new SalesRollupServiceImpl(salesRollupRepository, failingRepository,
+                transactionManager, "UTC", 2);
+        try {
+            assertThrows(IllegalStateException.class, failingService::rebuild);
+
+            List<ProductSales> products = salesRollupService.findProductSales(DAY, DAY);
+            assertEquals(1, products.size());
+            assertEquals(9L, products.get(0).getProductId());
+            assertEquals(70.0, products.get(0).getRevenue(), 0.001);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> {
+                salesRollupRepository.deleteAllInBatch();
+                orderRepository.deleteAll();
+            });
+        }
+    }
+
+    private static Order newOrder(LocalDate day, OrderLine... lines) {
+        Order order = Order.builder()
+                .date(date(day))
+                .status(OrderStatus.PENDING)
+                .userId("analyst")
+                .build();
+        for (OrderLine line : lines)
+            order.addOrderLine(line);
+        return order;
+    }
+
+    private static OrderLine line(Long productId, int quantity, double unitPrice) {
+        return OrderLine.builder().productId(productId).quantity(quantity).unitPrice(unitPrice).build();
+    }
+
+    private static Date date(LocalDate day) {
+        return Date.from(day.atTime(12, 0).toInstant(ZoneOffset.UTC));
+    }
+}
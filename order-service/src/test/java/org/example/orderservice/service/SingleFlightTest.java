@@ -0,0 +1,97 @@
+package org.example.orderservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SingleFlight Tests")
+class SingleFlightTest {
+
+    private SingleFlight<Long, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight<>();
+    }
+
+    @Test
+    @DisplayName("Should join a load already in flight instead of starting a new one")
+    void testExecute_CollapsesConcurrentCalls() throws Exception {
+        CompletableFuture<String> remote = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        Map<Long, CompletableFuture<String>> first = singleFlight.execute(List.of(1L), keys -> {
+            loads.incrementAndGet();
+            return Map.of(1L, remote);
+        });
+        Map<Long, CompletableFuture<String>> second = singleFlight.execute(List.of(1L), keys -> {
+            loads.incrementAndGet();
+            return Map.of(1L, CompletableFuture.completedFuture("other"));
+        });
+        remote.complete("Laptop");
+
+        assertEquals("Laptop", first.get(1L).get());
+        assertEquals("Laptop", second.get(1L).get());
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.getExecutedCount());
+        assertEquals(1, singleFlight.getCollapsedCount());
+    }
+
+    @Test
+    @DisplayName("Should only pass the keys it leads to the loader")
+    void testExecute_LoaderReceivesLedKeys() throws Exception {
+        CompletableFuture<String> remote = new CompletableFuture<>();
+        singleFlight.execute(List.of(1L), keys -> Map.of(1L, remote));
+
+        Map<Long, CompletableFuture<String>> futures = singleFlight.execute(List.of(1L, 2L), keys -> {
+            assertEquals(List.of(2L), keys);
+            return Map.of(2L, CompletableFuture.completedFuture("Mouse"));
+        });
+        remote.complete("Laptop");
+
+        assertEquals("Laptop", futures.get(1L).get());
+        assertEquals("Mouse", futures.get(2L).get());
+    }
+
+    @Test
+    @DisplayName("Should start a new load once the previous one completed")
+    void testExecute_NothingRetainedAfterCompletion() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute(List.of(1L), keys -> Map.of(1L, CompletableFuture.completedFuture("v" + loads.incrementAndGet())));
+        Map<Long, CompletableFuture<String>> futures = singleFlight.execute(List.of(1L),
+                keys -> Map.of(1L, CompletableFuture.completedFuture("v" + loads.incrementAndGet())));
+
+        assertEquals("v2", futures.get(1L).get());
+        assertEquals(0, singleFlight.getCollapsedCount());
+    }
+
+    @Test
+    @DisplayName("Should propagate a failed load to every waiting caller")
+    void testExecute_FailureShared() {
+        CompletableFuture<String> remote = new CompletableFuture<>();
+        Map<Long, CompletableFuture<String>> first = singleFlight.execute(List.of(1L), keys -> Map.of(1L, remote));
+        Map<Long, CompletableFuture<String>> second = singleFlight.execute(List.of(1L), keys -> Map.of());
+
+        remote.completeExceptionally(new RuntimeException("product-service unavailable"));
+
+        assertThrows(ExecutionException.class, () -> first.get(1L).get());
+        assertThrows(ExecutionException.class, () -> second.get(1L).get());
+    }
+
+    @Test
+    @DisplayName("Should resolve keys left out by the loader to null")
+    void testExecute_MissingKeyResolvesToNull() throws Exception {
+        Map<Long, CompletableFuture<String>> futures = singleFlight.execute(List.of(1L), keys -> Map.of());
+
+        assertNull(futures.get(1L).get());
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.orderservice.service;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.orderservice.entity.OrderLine;
+import org.example.orderservice.exception.InsufficientStockException;
+import org.example.orderservice.model.StockItem;
+import org.example.orderservice.web.ProductClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StockServiceImpl Tests")
+@ExtendWith(MockitoExtension.class)
+class StockServiceImplTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    @Spy
+    private ProductCircuitBreaker productCircuitBreaker = new ProductCircuitBreaker(new SimpleMeterRegistry(), 4,
+            Duration.ofMillis(50), 4, 2, 50, Duration.ofSeconds(10), 100, Duration.ofMinutes(1));
+
+    @InjectMocks
+    private StockServiceImpl stockService;
+
+    private final List<OrderLine> orderLines = List.of(
+            OrderLine.builder().productId(1L).quantity(2).build(),
+            OrderLine.builder().productId(2L).quantity(1).build());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Should reserve all lines in a single call")
+    void testReserve() {
+        stockService.reserve(orderLines);
+
+        verify(productClient, times(1)).reserve(List.of(new StockItem(1L, 2), new StockItem(2L, 1)));
+    }
+
+    @Test
+    @DisplayName("Should translate a 409 from product-service into InsufficientStockException")
+    void testReserve_Conflict() {
+        Request request = Request.create(Request.HttpMethod.POST, "/products/reserve", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        doThrow(new FeignException.Conflict("conflict", request, null, Map.of()))
+                .when(productClient).reserve(anyList());
+
+        assertThrows(InsufficientStockException.class, () -> stockService.reserve(orderLines));
+    }
+
+    @Test
+    @DisplayName("Should release the reservation when the transaction rolls back")
+    void testReserve_ReleasedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        stockService.reserve(orderLines);
+        verify(productClient, never()).release(anyList());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(productClient, times(1)).release(List.of(new StockItem(1L, 2), new StockItem(2L, 1)));
+    }
+
+    @Test
+    @DisplayName("Should only release stock once the transaction has committed")
+    void testRelease_AfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        stockService.release(orderLines);
+        verify(productClient, never()).release(anyList());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(productClient, times(1)).release(anyList());
+    }
+}
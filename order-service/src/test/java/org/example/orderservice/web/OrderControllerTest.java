@@ -0,0 +1,74 @@
+package org.example.orderservice.web;
+
+import org.example.orderservice.entity.Order;
+import org.example.orderservice.exception.InvalidParameterException;
+import org.example.orderservice.model.OrderBatchResult;
+import org.example.orderservice.service.OrderExportService;
+import org.example.orderservice.service.OrderPlacementService;
+import org.example.orderservice.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OrderController Tests")
+@ExtendWith(MockitoExtension.class)
+class OrderControllerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderExportService orderExportService;
+
+    @Mock
+    private OrderPlacementService orderPlacementService;
+
+    private OrderController orderController;
+    private Jwt jwt;
+
+    @BeforeEach
+    void setUp() {
+        orderController = new OrderController(orderService, orderExportService, orderPlacementService, 20, 100, 3);
+        jwt = Jwt.withTokenValue("token").header("alg", "none").subject("user-1").build();
+    }
+
+    @Test
+    @DisplayName("Should save a batch up to the maximum size for the caller")
+    void testSaveAll_AtMaximum() {
+        when(orderService.saveAll(anyList())).thenReturn(List.of(OrderBatchResult.created(0, 1L)));
+        List<Order> orders = orders(3);
+
+        ResponseEntity<List<OrderBatchResult>> response = orderController.saveAll(orders, jwt);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(orders.stream().allMatch(order -> "user-1".equals(order.getUserId())));
+        verify(orderService).saveAll(orders);
+    }
+
+    @Test
+    @DisplayName("Should reject a batch larger than the maximum size")
+    void testSaveAll_TooLarge() {
+        assertThrows(InvalidParameterException.class, () -> orderController.saveAll(orders(4), jwt));
+        verifyNoInteractions(orderService);
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            orders.add(new Order());
+        return orders;
+    }
+}
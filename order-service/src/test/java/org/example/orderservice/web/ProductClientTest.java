@@ -0,0 +1,137 @@
+package org.example.orderservice.web;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.orderservice.model.Product;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Decodes real product-service responses through the Feign client as it is
+ * configured in the application, against a local server answering in Smile.
+ * Runs offline: no config server, no Eureka and no authorization server.
+ */
+@SpringBootTest(properties = {
+        "CONFIG_SERVICE_URI=optional:configserver:",
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false"
+})
+@DisplayName("ProductClient Tests")
+class ProductClientTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final AtomicReference<String> lastAccept = new AtomicReference<>();
+    private static final HttpServer server = startServer();
+
+    @Autowired
+    private ProductClient productClient;
+
+    // Pas de serveur d'autorisation : le jeton de service est simulé
+    @MockitoBean
+    private OAuth2AuthorizedClientManager productServiceClientManager;
+
+    // Pas de jwk-set-uri sans le serveur de configuration
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("product-service")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("order-service")
+                .tokenUri("http://localhost/token")
+                .build();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "service-token",
+                Instant.now(), Instant.now().plusSeconds(60));
+        when(productServiceClientManager.authorize(any(OAuth2AuthorizeRequest.class)))
+                .thenReturn(new OAuth2AuthorizedClient(registration, "order-service", accessToken));
+    }
+
+    @DynamicPropertySource
+    static void productServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("product-service.url", () -> "http://localhost:" + server.getAddress().getPort());
+        registry.add("product-client.wire-format", () -> "smile");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should ask for Smile and decode a Smile product")
+    void testGetProductById_Smile() {
+        Product product = productClient.getProductById(1L);
+
+        assertTrue(lastAccept.get().startsWith(SMILE));
+        assertEquals(product(1L), product);
+    }
+
+    @Test
+    @DisplayName("Should decode a Smile product batch")
+    void testGetProductsByIds_Smile() {
+        List<Product> products = productClient.getProductsByIds(List.of(1L, 2L));
+
+        assertEquals(List.of(product(1L), product(2L)), products);
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            SmileMapper smileMapper = SmileMapper.shared();
+            httpServer.createContext("/products", exchange -> {
+                lastAccept.set(exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT));
+                String path = exchange.getRequestURI().getPath();
+                byte[] body = path.equals("/products/batch")
+                        ? smileMapper.writeValueAsBytes(List.of(product(1L), product(2L)))
+                        : smileMapper.writeValueAsBytes(product(Long.valueOf(path.substring("/products/".length()))));
+                exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, SMILE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            httpServer.start();
+            return httpServer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setPrice(10.0 + id);
+        product.setQuantity(5);
+        return product;
+    }
+}
@@ -10,6 +10,12 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * Scope of the client-credentials token order-service uses to reserve and
+     * release stock; user tokens never carry it.
+     */
+    public static final String STOCK_AUTHORITY = "SCOPE_stock:write";
+
     private final JwtAuthConverter jwtAuthConverter;
 
     public SecurityConfig(JwtAuthConverter jwtAuthConverter) {
@@ -27,6 +33,7 @@ public class SecurityConfig {
                                 "/v3/**",
                                 "/actuator/**"
                         ).permitAll()
+                        .requestMatchers("/products/reserve/**", "/products/release/**").hasAuthority(STOCK_AUTHORITY)
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
@@ -1,12 +1,22 @@
 package org.example.productservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_price", columnList = "price"),
+        @Index(name = "idx_product_quantity", columnList = "quantity")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
@@ -19,4 +29,20 @@ public class Product {
     private String description;
     private Double price;
     private int quantity;
+    // Stock des produits "hot" tenu en mémoire par HotStockRegistry
+    // Le défaut remplit les lignes antérieures à la colonne : un NULL ne se charge pas dans un boolean
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean hot;
+
+    // Défaut pour les lignes antérieures à la colonne : "where version = ?" ne trouve jamais un NULL
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    public Product(Long id, String name, String description, Double price, int quantity) {
+        this(id, name, description, price, quantity, false, null);
+    }
 }
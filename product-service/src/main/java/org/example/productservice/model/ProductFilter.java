@@ -0,0 +1,12 @@
+package org.example.productservice.model;
+
+/**
+ * Optional filters of the product list: a price range, bounds included, and
+ * {@code inStock=true} to keep only products with a positive quantity.
+ */
+public record ProductFilter(Double minPrice, Double maxPrice, Boolean inStock) {
+
+    public boolean isRequested() {
+        return minPrice != null || maxPrice != null || Boolean.TRUE.equals(inStock);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.productservice.model;
+
+/**
+ * List view of a product: the columns of a catalog listing, without the description.
+ */
+public record ProductView(Long id, String name, Double price, int quantity) {
+}
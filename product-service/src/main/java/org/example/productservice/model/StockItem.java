@@ -0,0 +1,15 @@
+package org.example.productservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockItem {
+    private Long productId;
+    private int quantity;
+}
@@ -1,9 +1,43 @@
 package org.example.productservice.repository;
 
 import org.example.productservice.entity.Product;
+import org.example.productservice.model.ProductView;
+import org.example.productservice.model.VersionWatermark;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+    Slice<Product> findBy(Pageable pageable);
+    Slice<Product> findByIdGreaterThan(Long id, Pageable pageable);
+    List<Product> findByHotTrue();
+
+    // Vue de liste : seules les colonnes affichées, sans charger d'entité
+    @Query("select new org.example.productservice.model.ProductView(p.id, p.name, p.price, p.quantity) " +
+            "from Product p where p.id > :after")
+    Slice<ProductView> findViews(Long after, Pageable pageable);
+
+    @Query("select new org.example.productservice.model.VersionWatermark(count(p), coalesce(sum(p.version), 0L), coalesce(max(p.id), 0L)) " +
+            "from Product p")
+    VersionWatermark findWatermark();
+
+    @Query("select p.quantity from Product p where p.id = :id")
+    Optional<Integer> findQuantityById(Long id);
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1 " +
+            "where p.id = :id and p.quantity >= :quantity")
+    int decrementQuantity(Long id, int quantity);
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :quantity, p.version = p.version + 1 where p.id = :id")
+    int incrementQuantity(Long id, int quantity);
 }
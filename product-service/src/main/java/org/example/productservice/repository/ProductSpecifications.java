@@ -0,0 +1,46 @@
+package org.example.productservice.repository;
+
+import org.example.productservice.entity.Product;
+import org.example.productservice.model.ProductFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Criteria of the filtered product list. Each one is a range predicate on an
+ * indexed column ({@code price}, {@code quantity} or the id) so the database
+ * can seek instead of scanning the table.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> of(ProductFilter filter, Long after) {
+        Specification<Product> specification = Specification.unrestricted();
+        if (filter.minPrice() != null)
+            specification = specification.and(priceAtLeast(filter.minPrice()));
+        if (filter.maxPrice() != null)
+            specification = specification.and(priceAtMost(filter.maxPrice()));
+        if (Boolean.TRUE.equals(filter.inStock()))
+            specification = specification.and(inStock());
+        if (after != null)
+            specification = specification.and(idGreaterThan(after));
+        return specification;
+    }
+
+    public static Specification<Product> priceAtLeast(double minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(double maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> inStock() {
+        // ">= 1" et non "> 0" : H2 démarre la plage d'index à la borne, et parcourrait toutes les ruptures
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("quantity"), 1);
+    }
+
+    public static Specification<Product> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+}
@@ -0,0 +1,216 @@
+package org.example.productservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.productservice.exception.InsufficientStockException;
+import org.example.productservice.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sells the stock of products flagged as hot from in-memory
+ * {@link StripedStockCounter}s, so reservations of a hot product scale with
+ * the number of cores instead of queuing on its database row.
+ * <p>
+ * The table stays authoritative: each instance leases stock from it, by a
+ * conditional decrement of {@code hot-stock.lease-size} units (or what is
+ * left), and only sells what it leased, so several instances never sell the
+ * same units. Every {@code hot-stock.flush-interval} milliseconds the stock
+ * released beyond one lease goes back to the table, and all of it on
+ * shutdown. Between two, the quantity read from the table leaves out what
+ * the instances hold; a crash loses no reservation, only the unsold part of
+ * its leases, which the table no longer counts until the quantity is set
+ * again.
+ */
+@Slf4j
+@Component
+public class HotStockRegistry {
+
+    private static final int LEASE_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripes;
+    private final int leaseSize;
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+
+    public HotStockRegistry(ProductRepository productRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${hot-stock.stripes:0}") int stripes,
+                            @Value("${hot-stock.lease-size:100}") int leaseSize) {
+        this.productRepository = productRepository;
+        // Bail et restitution sont validés tout de suite, même appelés depuis une transaction qui échoue ensuite
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.leaseSize = Math.max(1, leaseSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        productRepository.findByHotTrue().forEach(product -> startTracking(product.getId()));
+        log.info("Tracking {} hot products", counters.size());
+    }
+
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+
+    /**
+     * Reserves from the stock leased by this instance, leasing more when it
+     * runs out. Returns {@code false} when the product is not, or no longer,
+     * hot: the reservation then belongs on its row. Meant to be called outside
+     * any transaction: a lease takes a connection of its own, and the
+     * reservations waiting on it should not hold one meanwhile.
+     */
+    public boolean tryReserve(Long productId, int quantity) {
+        StripedStockCounter counter = counters.get(productId);
+        if (counter == null)
+            return false;
+        if (counter.tryReserve(quantity))
+            return true;
+        // Un seul bail à la fois par produit : les autres réservations attendent son résultat
+        synchronized (counter) {
+            if (counter.isClosed())
+                return false;
+            if (counter.tryReserve(quantity))
+                return true;
+            long leased = lease(productId, Math.max(leaseSize, quantity));
+            if (leased > 0)
+                counter.add(leased);
+            if (counter.tryReserve(quantity))
+                return true;
+        }
+        throw new InsufficientStockException(productId);
+    }
+
+    /**
+     * Gives a reservation back to the lease. Returns {@code false} when the
+     * product is not hot: the quantity then belongs on its row.
+     */
+    public boolean release(Long productId, int quantity) {
+        StripedStockCounter counter = counters.get(productId);
+        if (counter == null)
+            return false;
+        // Compteur fermé entre-temps : la quantité repart en base
+        if (!counter.release(quantity))
+            giveBack(productId, counter.drain());
+        return true;
+    }
+
+    public long available(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        return counter == null ? 0 : counter.available();
+    }
+
+    /**
+     * Starts selling a product from leases once the transaction that flagged
+     * it as hot commits. Nothing is read from the row: the first reservation
+     * leases what is there at that moment.
+     */
+    public void track(Long productId) {
+        afterCommit(() -> startTracking(productId));
+    }
+
+    /**
+     * Stops selling a product from leases once the transaction that cleared
+     * its flag commits, and returns what this instance still holds.
+     */
+    public void untrack(Long productId) {
+        afterCommit(() -> {
+            StripedStockCounter counter = counters.remove(productId);
+            if (counter != null)
+                giveBack(productId, counter.close());
+        });
+    }
+
+    /**
+     * Drops the current lease once a quantity typed in for the product
+     * commits: that quantity replaces whatever this instance held.
+     */
+    public void reset(Long productId) {
+        afterCommit(() -> {
+            StripedStockCounter previous = counters.put(productId, new StripedStockCounter(stripes));
+            if (previous != null)
+                previous.close();
+        });
+    }
+
+    public void remove(Long productId) {
+        StripedStockCounter counter = counters.remove(productId);
+        if (counter != null)
+            counter.close();
+    }
+
+    @Scheduled(fixedDelayString = "${hot-stock.flush-interval:500}")
+    public void flush() {
+        counters.forEach((productId, counter) -> {
+            long excess = counter.takeExcess(leaseSize);
+            // Restitution échouée : le stock reste loué jusqu'au prochain passage
+            if (excess > 0 && !giveBack(productId, excess))
+                counter.add(excess);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        counters.forEach((productId, counter) -> giveBack(productId, counter.close()));
+    }
+
+    private void startTracking(Long productId) {
+        counters.computeIfAbsent(productId, id -> new StripedStockCounter(stripes));
+    }
+
+    // Décrément conditionnel : deux instances ne peuvent pas louer les mêmes unités
+    private long lease(Long productId, int wanted) {
+        Long leased = transactionTemplate.execute(status -> {
+            int quantity = wanted;
+            for (int attempt = 0; attempt < LEASE_ATTEMPTS; attempt++) {
+                if (productRepository.decrementQuantity(productId, quantity) > 0)
+                    return (long) quantity;
+                quantity = Math.min(wanted, productRepository.findQuantityById(productId).orElse(0));
+                if (quantity <= 0)
+                    return 0L;
+            }
+            return 0L;
+        });
+        return leased == null ? 0 : leased;
+    }
+
+    private boolean giveBack(Long productId, long quantity) {
+        if (quantity == 0)
+            return true;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    productRepository.incrementQuantity(productId, Math.toIntExact(quantity)));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to return {} leased units of product {}", quantity, productId, e);
+            return false;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.productservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.productservice.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of products by id plus the pages of the unfiltered
+ * catalog served by {@code GET /products}, bounded to
+ * {@code product-cache.maximum-size} products and
+ * {@code product-cache.maximum-pages} pages and expiring
+ * {@code product-cache.ttl} after they were loaded. Concurrent misses on the
+ * same key wait for a single loader. Hit, miss and eviction counts are
+ * published as the {@code cache.*} meters and the hit ratio as
+ * {@code cache.hit.ratio}, tagged {@code cache=products} and {@code cache=catalog}.
+ * <p>
+ * Writes invalidate the product and the catalog once their transaction has
+ * committed. Stock reservations do not, so cached quantities can lag by up to
+ * the TTL.
+ */
+@Component
+public class ProductCache {
+
+    public static final String PRODUCT_CACHE = "products";
+    public static final String CATALOG_CACHE = "catalog";
+
+    private final Cache<Long, Product> products;
+    private final Cache<CatalogPage, Slice<Product>> catalog;
+
+    public ProductCache(@Value("${product-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product-cache.maximum-pages:100}") long maximumPages,
+                        @Value("${product-cache.ttl:30s}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.products = monitor(meterRegistry, PRODUCT_CACHE, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        this.catalog = monitor(meterRegistry, CATALOG_CACHE, Caffeine.newBuilder()
+                .maximumSize(maximumPages)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+
+    /**
+     * Returns the cached product, loading it on a miss. A {@code null} from the
+     * loader is not cached.
+     */
+    public Product get(Long id, Function<Long, Product> loader) {
+        return products.get(id, loader);
+    }
+
+    /**
+     * Returns the cached products among {@code ids}, in the order of
+     * {@code ids}, loading all misses with a single call to the loader. Ids the
+     * loader does not return are left out and not cached.
+     */
+    public Map<Long, Product> getAll(Collection<Long> ids, Function<Set<? extends Long>, Map<Long, Product>> loader) {
+        return products.getAll(ids, loader);
+    }
+
+    /**
+     * Returns the cached catalog page for {@code pageable} and the keyset
+     * cursor {@code after}, loading it on a miss.
+     */
+    public Slice<Product> page(Pageable pageable, Long after, Supplier<Slice<Product>> loader) {
+        return catalog.get(new CatalogPage(pageable, after), key -> {
+            Slice<Product> slice = loader.get();
+            return new SliceImpl<>(List.copyOf(slice.getContent()), slice.getPageable(), slice.hasNext());
+        });
+    }
+
+    public void invalidate(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        } else {
+            evict(id);
+        }
+    }
+
+    private void evict(Long id) {
+        if (id != null)
+            products.invalidate(id);
+        catalog.invalidateAll();
+    }
+
+    private record CatalogPage(Pageable pageable, Long after) {
+    }
+
+    private static <K, V> Cache<K, V> monitor(MeterRegistry meterRegistry, String name, Cache<K, V> cache) {
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of lookups served from the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+}
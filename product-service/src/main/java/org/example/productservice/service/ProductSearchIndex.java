@@ -0,0 +1,249 @@
+package org.example.productservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.productservice.entity.Product;
+import org.example.productservice.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the name and description of every product,
+ * answering {@link #search} without touching the database.
+ * <p>
+ * Text is lower-cased, stripped of accents and split on anything that is not a
+ * letter or a digit. Terms are kept sorted so every query token also matches
+ * the terms it is a prefix of ({@code lap} finds {@code laptop}); tokens
+ * shorter than {@code product-search.min-prefix} only match whole terms.
+ * A product must match every token of the query. Its score adds, per token,
+ * the weight of its best matching term: a term of the name weighs
+ * {@link #NAME_WEIGHT}, one of the description {@link #DESCRIPTION_WEIGHT},
+ * and a prefix match is discounted by the share of the term it covers.
+ * <p>
+ * The index is rebuilt from the {@code product} table on startup and updated
+ * after each committed write. Writers are serialized; searches never block and
+ * may see a product half re-indexed while it is being updated.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+    private final int minPrefix;
+    private final int rebuildPageSize;
+
+    // terme -> (id du produit -> poids)
+    private volatile ConcurrentNavigableMap<String, ConcurrentMap<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    // id du produit -> termes indexés, pour retirer l'ancienne version
+    private volatile ConcurrentMap<Long, Set<String>> documents = new ConcurrentHashMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${product-search.min-prefix:2}") int minPrefix,
+                              @Value("${product-search.rebuild-page-size:1000}") int rebuildPageSize) {
+        this.productRepository = productRepository;
+        this.minPrefix = minPrefix;
+        this.rebuildPageSize = rebuildPageSize;
+    }
+
+    /**
+     * Rebuilds the index from the table, page by page in id order, then swaps
+     * it in so searches keep using the previous index meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        ConcurrentNavigableMap<String, ConcurrentMap<Long, Float>> newPostings = new ConcurrentSkipListMap<>();
+        ConcurrentMap<Long, Set<String>> newDocuments = new ConcurrentHashMap<>();
+        Pageable pageable = PageRequest.of(0, rebuildPageSize, Sort.by("id"));
+        Slice<Product> page = productRepository.findBy(pageable);
+        while (true) {
+            page.forEach(product -> add(newPostings, newDocuments, product));
+            if (!page.hasNext() || page.isEmpty())
+                break;
+            Long last = page.getContent().get(page.getNumberOfElements() - 1).getId();
+            page = productRepository.findByIdGreaterThan(last, pageable);
+        }
+        postings = newPostings;
+        documents = newDocuments;
+        log.info("Indexed {} products, {} terms", newDocuments.size(), newPostings.size());
+    }
+
+    /**
+     * (Re)indexes a product, once the current transaction has committed if one
+     * is active.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null)
+            return;
+        // Copie des champs indexés : l'entité peut changer avant le commit
+        Product snapshot = Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .build();
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(postings, documents, snapshot.getId());
+                add(postings, documents, snapshot);
+            }
+        });
+    }
+
+    public void remove(Long productId) {
+        if (productId == null)
+            return;
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(postings, documents, productId);
+            }
+        });
+    }
+
+    /**
+     * Returns the ids of the best {@code limit} products matching every token of
+     * the query, best first, ties broken by id.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0)
+            return List.of();
+        ConcurrentNavigableMap<String, ConcurrentMap<Long, Float>> postings = this.postings;
+
+        // Les jetons les plus sélectifs d'abord pour réduire au plus vite les candidats
+        Map<String, NavigableMap<String, ConcurrentMap<Long, Float>>> matches = new HashMap<>();
+        for (String token : tokens)
+            matches.put(token, matchingTerms(postings, token));
+        tokens.sort(Comparator.comparingLong(token -> postingCount(matches.get(token))));
+
+        Map<Long, Float> scores = null;
+        for (String token : tokens) {
+            Map<Long, Float> candidates = scores;
+            Map<Long, Float> tokenScores = new HashMap<>();
+            for (Map.Entry<String, ConcurrentMap<Long, Float>> term : matches.get(token).entrySet()) {
+                float coverage = (float) token.length() / term.getKey().length();
+                term.getValue().forEach((productId, weight) -> {
+                    if (candidates == null || candidates.containsKey(productId))
+                        tokenScores.merge(productId, weight * coverage, Math::max);
+                });
+            }
+            scores = accumulate(candidates, tokenScores);
+            if (scores.isEmpty())
+                return List.of();
+        }
+        return top(scores, limit);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank())
+            return List.of();
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized))
+            if (!token.isEmpty())
+                tokens.add(token);
+        return tokens;
+    }
+
+    private NavigableMap<String, ConcurrentMap<Long, Float>> matchingTerms(
+            ConcurrentNavigableMap<String, ConcurrentMap<Long, Float>> postings, String token) {
+        if (token.length() < minPrefix) {
+            ConcurrentMap<Long, Float> exact = postings.get(token);
+            NavigableMap<String, ConcurrentMap<Long, Float>> terms = new TreeMap<>();
+            if (exact != null)
+                terms.put(token, exact);
+            return terms;
+        }
+        return postings.subMap(token, true, token + Character.MAX_VALUE, false);
+    }
+
+    private static long postingCount(NavigableMap<String, ConcurrentMap<Long, Float>> terms) {
+        long size = 0;
+        for (ConcurrentMap<Long, Float> ids : terms.values())
+            size += ids.size();
+        return size;
+    }
+
+    private static Map<Long, Float> accumulate(Map<Long, Float> scores, Map<Long, Float> tokenScores) {
+        if (scores == null)
+            return tokenScores;
+        Map<Long, Float> merged = new HashMap<>();
+        tokenScores.forEach((productId, score) -> merged.put(productId, scores.get(productId) + score));
+        return merged;
+    }
+
+    private static List<Long> top(Map<Long, Float> scores, int limit) {
+        Comparator<Map.Entry<Long, Float>> ranking = Map.Entry.<Long, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(ranking.reversed());
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > limit)
+                best.poll();
+        }
+        List<Map.Entry<Long, Float>> sorted = new ArrayList<>(best);
+        sorted.sort(ranking);
+        return sorted.stream().map(Map.Entry::getKey).toList();
+    }
+
+    private static void add(ConcurrentNavigableMap<String, ConcurrentMap<Long, Float>> postings,
+                            ConcurrentMap<Long, Set<String>> documents, Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : tokenize(product.getDescription()))
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        for (String term : tokenize(product.getName()))
+            weights.merge(term, NAME_WEIGHT, Float::sum);
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(product.getId(), weight));
+        documents.put(product.getId(), Set.copyOf(weights.keySet()));
+    }
+
+    private static void remove(ConcurrentNavigableMap<String, ConcurrentMap<Long, Float>> postings,
+                               ConcurrentMap<Long, Set<String>> documents, Long productId) {
+        Set<String> terms = documents.remove(productId);
+        if (terms == null)
+            return;
+        for (String term : terms) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(productId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
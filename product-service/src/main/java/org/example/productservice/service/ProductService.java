@@ -1,13 +1,25 @@
 package org.example.productservice.service;
 
 import org.example.productservice.entity.Product;
+import org.example.productservice.model.ProductFilter;
+import org.example.productservice.model.ProductView;
+import org.example.productservice.model.VersionWatermark;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface ProductService {
     public List<Product> findAll();
+    public Slice<Product> findAll(Pageable pageable, Long after);
+    public Slice<Product> findAll(ProductFilter filter, Pageable pageable, Long after);
+    public Slice<ProductView> findViews(Pageable pageable, Long after);
+    public VersionWatermark findWatermark();
     public Product findById(Long id);
+    public List<Product> findAllById(List<Long> ids);
+    public List<Product> search(String query, int limit);
     public void save(Product product);
     public void update(Long id, Product product);
+    public void setHot(Long id, boolean hot);
     public void deleteById(Long id);
 }
@@ -2,18 +2,35 @@ package org.example.productservice.service;
 
 import jakarta.transaction.Transactional;
 import org.example.productservice.entity.Product;
+import org.example.productservice.model.ProductFilter;
+import org.example.productservice.model.ProductView;
+import org.example.productservice.model.VersionWatermark;
 import org.example.productservice.repository.ProductRepository;
+import org.example.productservice.repository.ProductSpecifications;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final HotStockRegistry hotStockRegistry;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
 
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, HotStockRegistry hotStockRegistry,
+                              ProductCache productCache, ProductSearchIndex productSearchIndex) {
         this.productRepository = productRepository;
+        this.hotStockRegistry = hotStockRegistry;
+        this.productCache = productCache;
+        this.productSearchIndex = productSearchIndex;
     }
 
     @Override
@@ -21,14 +38,72 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findAll();
     }
 
+    @Override
+    public Slice<Product> findAll(Pageable pageable, Long after) {
+        // Pages servies par GET /products sans filtre : la première surtout, demandée à chaque visite
+        return productCache.page(pageable, after, () -> after == null
+                ? productRepository.findBy(pageable)
+                : productRepository.findByIdGreaterThan(after, pageable));
+    }
+
+    @Override
+    public Slice<Product> findAll(ProductFilter filter, Pageable pageable, Long after) {
+        // Slice plutôt que Page : pas de requête count sur le filtre
+        return productRepository.findBy(ProductSpecifications.of(filter, after), query -> query.slice(pageable));
+    }
+
+    @Override
+    public Slice<ProductView> findViews(Pageable pageable, Long after) {
+        return productRepository.findViews(after == null ? 0L : after, pageable);
+    }
+
+    @Override
+    public VersionWatermark findWatermark() {
+        return productRepository.findWatermark();
+    }
+
     @Override
     public Product findById(Long id) {
-        return productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        // Caffeine n'accepte pas de clé nulle
+        if (id == null)
+            throw new RuntimeException("Product id is required");
+        Product product = productCache.get(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null)
+            throw new RuntimeException("Product not found with id: " + id);
+        return product;
+    }
+
+    @Override
+    public List<Product> findAllById(List<Long> ids) {
+        // Seuls les produits absents du cache sont lus, en une requête
+        List<Long> keys = ids.stream().filter(Objects::nonNull).distinct().toList();
+        return List.copyOf(productCache.getAll(keys, missing -> productRepository.findAllById(List.copyOf(missing)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()))).values());
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        List<Long> ids = productSearchIndex.search(query, limit);
+        if (ids.isEmpty())
+            return List.of();
+        // findAllById ne garantit pas l'ordre : on remet les produits dans l'ordre du classement
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
     public void save(Product product) {
             productRepository.save(product);
+            if (product != null && product.isHot())
+                hotStockRegistry.track(product.getId());
+            if (product != null) {
+                productCache.invalidate(product.getId());
+                productSearchIndex.index(product);
+            }
     }
 
     @Transactional
@@ -36,19 +111,44 @@ public class ProductServiceImpl implements ProductService {
     public void update(Long id, Product product) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        productCache.invalidate(id);
 if(product.getName() != null)
     existingProduct.setName(product.getName());
 if(product.getDescription() != null)
     existingProduct.setDescription(product.getDescription());
 if (product.getPrice() != null)
         existingProduct.setPrice(product.getPrice());
-if (product.getQuantity() != 0)
+if (product.getQuantity() != 0) {
         existingProduct.setQuantity(product.getQuantity());
+        // La quantité saisie remplace le stock loué en mémoire
+        if (existingProduct.isHot())
+            hotStockRegistry.reset(id);
+}
+        productSearchIndex.index(existingProduct);
 
     }
 
+    @Transactional
+    @Override
+    public void setHot(Long id, boolean hot) {
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        if (existingProduct.isHot() == hot)
+            return;
+        existingProduct.setHot(hot);
+        productCache.invalidate(id);
+        // Après commit : un produit qui n'est plus "hot" rend en base le stock encore loué
+        if (hot)
+            hotStockRegistry.track(id);
+        else
+            hotStockRegistry.untrack(id);
+    }
+
     @Override
     public void deleteById(Long id) {
         productRepository.deleteById(id);
+        hotStockRegistry.remove(id);
+        productCache.invalidate(id);
+        productSearchIndex.remove(id);
     }
 }
@@ -0,0 +1,10 @@
+package org.example.productservice.service;
+
+import org.example.productservice.model.StockItem;
+
+import java.util.List;
+
+public interface StockService {
+    public void reserve(List<StockItem> items);
+    public void release(List<StockItem> items);
+}
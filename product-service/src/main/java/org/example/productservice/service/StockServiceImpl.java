@@ -0,0 +1,107 @@
+package org.example.productservice.service;
+
+import jakarta.transaction.Transactional;
+import org.example.productservice.exception.InsufficientStockException;
+import org.example.productservice.model.StockItem;
+import org.example.productservice.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Changes stock with conditional updates instead of read-modify-write, so
+ * concurrent reservations never oversell nor lose updates. A reservation is
+ * all-or-nothing: the first product without enough stock fails the whole
+ * reservation. Hot products are reserved first, from the stock leased by the
+ * {@link HotStockRegistry}, before the transaction on the other rows starts:
+ * a lease takes its own connection, and reservations waiting on it hold none.
+ * They are given back if the reservation fails or its transaction rolls back.
+ */
+@Service
+public class StockServiceImpl implements StockService {
+
+    private final ProductRepository productRepository;
+    private final HotStockRegistry hotStockRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockServiceImpl(ProductRepository productRepository, HotStockRegistry hotStockRegistry,
+                            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.hotStockRegistry = hotStockRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void reserve(List<StockItem> items) {
+        Map<Long, Integer> reservedInMemory = new HashMap<>();
+        Map<Long, Integer> onRows = new TreeMap<>();
+        try {
+            merge(items).forEach((productId, quantity) -> {
+                if (hotStockRegistry.tryReserve(productId, quantity))
+                    reservedInMemory.put(productId, quantity);
+                else
+                    onRows.put(productId, quantity);
+            });
+        } catch (RuntimeException e) {
+            reservedInMemory.forEach(hotStockRegistry::release);
+            throw e;
+        }
+        AtomicBoolean handedOver = new AtomicBoolean();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Rendu au bail si la transaction est annulée, y compris quand le commit lui-même échoue
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completionStatus) {
+                        if (completionStatus == STATUS_ROLLED_BACK)
+                            reservedInMemory.forEach(hotStockRegistry::release);
+                    }
+                });
+                handedOver.set(true);
+                onRows.forEach((productId, quantity) -> {
+                    if (productRepository.decrementQuantity(productId, quantity) == 0) {
+                        if (!productRepository.existsById(productId))
+                            throw new RuntimeException("Product not found with id: " + productId);
+                        throw new InsufficientStockException(productId);
+                    }
+                });
+            });
+        } catch (RuntimeException e) {
+            // Transaction jamais ouverte : aucune synchronisation ne rendra le stock
+            if (!handedOver.get())
+                reservedInMemory.forEach(hotStockRegistry::release);
+            throw e;
+        }
+    }
+
+    @Transactional
+    @Override
+    public void release(List<StockItem> items) {
+        merge(items).forEach((productId, quantity) -> {
+            if (!hotStockRegistry.release(productId, quantity)
+                    && productRepository.incrementQuantity(productId, quantity) == 0)
+                throw new RuntimeException("Product not found with id: " + productId);
+        });
+    }
+
+    // Regroupe les quantités par produit, dans l'ordre des ids pour que les verrous soient toujours pris dans le même ordre
+    private Map<Long, Integer> merge(List<StockItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockItem item : items) {
+            if (item.getProductId() == null)
+                throw new RuntimeException("Product id is required");
+            if (item.getQuantity() <= 0)
+                throw new RuntimeException("Quantity must be positive for product: " + item.getProductId());
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
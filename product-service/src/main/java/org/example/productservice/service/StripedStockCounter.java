@@ -0,0 +1,128 @@
+package org.example.productservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock leased by {@link HotStockRegistry} for one product, split across
+ * stripes so that concurrent reservations mostly CAS different slots instead
+ * of contending on a single value.
+ * <p>
+ * A reservation first tries the caller's stripe, then the others; only when
+ * no single stripe can serve it are all stripes drained under a lock, the
+ * reservation taken from the total and the rest spread back evenly. Once
+ * closed, the counter serves no reservation and takes no new lease; what is
+ * left, or released afterwards, is handed back through {@link #drain()}.
+ */
+class StripedStockCounter {
+
+    private final AtomicLongArray available;
+    private volatile boolean closed;
+
+    StripedStockCounter(int stripes) {
+        this.available = new AtomicLongArray(stripes);
+    }
+
+    boolean tryReserve(int quantity) {
+        if (closed)
+            return false;
+        int stripes = available.length();
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (tryDecrement((home + i) % stripes, quantity))
+                return true;
+        }
+        return reserveFromAllStripes(quantity, home);
+    }
+
+    /**
+     * Gives a reservation back. Returns {@code false} when the counter was
+     * closed meanwhile: the caller must then {@link #drain()} it again so the
+     * quantity goes back to the database instead of staying here.
+     */
+    boolean release(int quantity) {
+        available.addAndGet(ThreadLocalRandom.current().nextInt(available.length()), quantity);
+        return !closed;
+    }
+
+    /**
+     * Adds a new lease; refused once the counter is closed.
+     */
+    synchronized boolean add(long quantity) {
+        if (closed)
+            return false;
+        spread(quantity, ThreadLocalRandom.current().nextInt(available.length()));
+        return true;
+    }
+
+    /**
+     * Takes back everything above {@code keep}, to return it to the database.
+     */
+    synchronized long takeExcess(long keep) {
+        long total = drainStripes();
+        long excess = Math.max(0, total - keep);
+        spread(total - excess, 0);
+        return excess;
+    }
+
+    /**
+     * Closes the counter and takes back all its stock.
+     */
+    synchronized long close() {
+        closed = true;
+        return drainStripes();
+    }
+
+    // Sans verrou : un compteur fermé ne reçoit plus que des libérations tardives
+    long drain() {
+        return drainStripes();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    long available() {
+        long total = 0;
+        for (int i = 0; i < available.length(); i++)
+            total += available.get(i);
+        return total;
+    }
+
+    private boolean tryDecrement(int stripe, int quantity) {
+        long current = available.get(stripe);
+        while (current >= quantity) {
+            if (available.compareAndSet(stripe, current, current - quantity))
+                return true;
+            current = available.get(stripe);
+        }
+        return false;
+    }
+
+    private synchronized boolean reserveFromAllStripes(int quantity, int home) {
+        if (closed)
+            return false;
+        long total = drainStripes();
+        boolean reserved = total >= quantity;
+        if (reserved)
+            total -= quantity;
+        spread(total, home);
+        return reserved;
+    }
+
+    private long drainStripes() {
+        long total = 0;
+        for (int i = 0; i < available.length(); i++)
+            total += available.getAndSet(i, 0);
+        return total;
+    }
+
+    // Ajoute (et non remplace) : des libérations concurrentes ont pu arriver entre-temps
+    private void spread(long quantity, int home) {
+        int stripes = available.length();
+        long share = quantity / stripes;
+        for (int i = 0; i < stripes; i++)
+            available.addAndGet(i, share);
+        available.addAndGet(home, quantity - share * stripes);
+    }
+}
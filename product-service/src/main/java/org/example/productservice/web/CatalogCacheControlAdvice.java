@@ -0,0 +1,58 @@
+package org.example.productservice.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.time.Duration;
+
+/**
+ * Lets shared caches such as the gateway keep successful catalog reads for
+ * {@code catalog-cache.max-age}, then serve them stale for
+ * {@code catalog-cache.stale-while-revalidate} while they refresh them. The
+ * catalog is the same for every user, so the responses are {@code public} even
+ * though the requests carry a token; they vary on {@code Accept} since the same
+ * URI also answers in Smile.
+ */
+@ControllerAdvice(assignableTypes = ProductController.class)
+public class CatalogCacheControlAdvice implements ResponseBodyAdvice<Object> {
+
+    private final String cacheControl;
+
+    public CatalogCacheControlAdvice(@Value("${catalog-cache.max-age:30s}") Duration maxAge,
+                                     @Value("${catalog-cache.stale-while-revalidate:30s}") Duration staleWhileRevalidate) {
+        this.cacheControl = CacheControl.maxAge(maxAge)
+                .cachePublic()
+                .staleWhileRevalidate(staleWhileRevalidate)
+                .getHeaderValue();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request.getMethod() == HttpMethod.GET
+                && response instanceof ServletServerHttpResponse servletResponse
+                && servletResponse.getServletResponse().getStatus() == HttpStatus.OK.value()
+                && response.getHeaders().getCacheControl() == null) {
+            response.getHeaders().setCacheControl(cacheControl);
+            response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return body;
+    }
+}
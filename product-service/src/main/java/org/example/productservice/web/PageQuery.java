@@ -0,0 +1,68 @@
+package org.example.productservice.web;
+
+import org.example.productservice.exception.InvalidSortException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Optional paging parameters of list endpoints: {@code page}/{@code size} for offset
+ * pagination, or {@code after}/{@code size} for keyset pagination on the id. Without
+ * any of them the first page of the default size is returned, never the whole table.
+ * The page size is clamped to the server-side maximum and the link to the next page,
+ * if any, is returned in a {@code Link: <...>; rel="next"} header.
+ * <p>
+ * {@code sort=price} or {@code sort=price,desc} orders the page by one of the
+ * {@link #SORTABLE} properties, then by id. Keyset pagination only applies to the
+ * ascending id order.
+ */
+public record PageQuery(Integer page, Integer size, Long after, String sort) {
+
+    public static final Set<String> SORTABLE = Set.of("id", "price");
+
+    public Pageable toPageable(int defaultSize, int maxSize) {
+        int pageSize = size == null ? defaultSize : Math.min(Math.max(size, 1), maxSize);
+        int pageNumber = after != null || page == null ? 0 : Math.max(page, 0);
+        return PageRequest.of(pageNumber, pageSize, toSort());
+    }
+
+    private Sort toSort() {
+        if (sort == null || sort.isBlank())
+            return Sort.by("id");
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE.contains(property))
+            throw new InvalidSortException("Cannot sort by: " + property);
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(
+                        () -> new InvalidSortException("Invalid sort direction: " + parts[1].trim()))
+                : Sort.Direction.ASC;
+        if (after != null && !(property.equals("id") && direction.isAscending()))
+            throw new InvalidSortException("Keyset pagination requires sorting by ascending id");
+        Sort order = Sort.by(direction, property);
+        return property.equals("id") ? order : order.and(Sort.by("id"));
+    }
+
+    public <T> ResponseEntity<List<T>> toResponse(Slice<T> slice, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.hasNext() && slice.hasContent()) {
+            UriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("size", slice.getSize());
+            if (page != null && after == null)
+                next.replaceQueryParam("page", slice.getNumber() + 1);
+            else
+                next.replaceQueryParam("after", idOf.apply(slice.getContent().get(slice.getNumberOfElements() - 1)));
+            response.header(HttpHeaders.LINK, "<" + next.build().toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(slice.getContent());
+    }
+}
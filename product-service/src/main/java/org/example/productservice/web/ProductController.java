@@ -2,9 +2,15 @@ package org.example.productservice.web;
 
 
 import org.example.productservice.entity.Product;
+import org.example.productservice.model.ProductFilter;
+import org.example.productservice.model.ProductView;
 import org.example.productservice.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -12,18 +18,55 @@ import java.util.List;
 @RequestMapping("/products")
 public class ProductController {
     private final ProductService productService;
-    public ProductController(ProductService productService) {
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    public ProductController(ProductService productService,
+                             @Value("${pagination.default-size:20}") int defaultPageSize,
+                             @Value("${pagination.max-size:100}") int maxPageSize) {
         this.productService = productService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
+    // Les ETags reposent sur les versions des produits : un 304 évite toute sérialisation
     @GetMapping
-    public List<Product> findAll() {
-        return productService.findAll();
+    public ResponseEntity<List<Product>> findAll(PageQuery pageQuery, ProductFilter filter, WebRequest webRequest) {
+        if (webRequest.checkNotModified(productService.findWatermark().toETag()))
+            return null;
+        // Toujours paginé, même sans paramètre, pour ne jamais renvoyer tout le catalogue
+        Pageable pageable = pageQuery.toPageable(defaultPageSize, maxPageSize);
+        return pageQuery.toResponse(filter.isRequested()
+                        ? productService.findAll(filter, pageable, pageQuery.after())
+                        : productService.findAll(pageable, pageQuery.after()),
+                Product::getId);
+    }
+
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<ProductView>> findAllViews(PageQuery pageQuery, WebRequest webRequest) {
+        if (webRequest.checkNotModified(productService.findWatermark().toETag() + "-summary"))
+            return null;
+        return pageQuery.toResponse(
+                productService.findViews(pageQuery.toPageable(defaultPageSize, maxPageSize), pageQuery.after()),
+                ProductView::id);
+    }
+
+    @GetMapping("/batch")
+    public List<Product> findAllById(@RequestParam List<Long> ids) {
+        return productService.findAllById(ids);
+    }
+
+    @GetMapping("/search")
+    public List<Product> search(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return productService.search(q, size);
     }
 
     @GetMapping("/{id}")
-    public Product findById(@PathVariable Long id) {
-        return productService.findById(id);
+    public Product findById(@PathVariable Long id, WebRequest webRequest) {
+        Product product = productService.findById(id);
+        if (webRequest.checkNotModified(product.getId() + "-" + product.getVersion()))
+            return null;
+        return product;
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -38,6 +81,12 @@ public class ProductController {
         productService.update(id, product);
     }
 
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PutMapping("/{id}/hot")
+    public void setHot(@PathVariable Long id, @RequestParam boolean enabled) {
+        productService.setHot(id, enabled);
+    }
+
     @PreAuthorize("hasAuthority('ADMIN')")
     @DeleteMapping("/{id}")
     public void deleteById(@PathVariable Long id) {
@@ -0,0 +1,30 @@
+package org.example.productservice.web;
+
+import org.example.productservice.model.StockItem;
+import org.example.productservice.service.StockService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/products")
+public class StockController {
+    private final StockService stockService;
+
+    public StockController(StockService stockService) {
+        this.stockService = stockService;
+    }
+
+    @PostMapping("/reserve")
+    public void reserve(@RequestBody List<StockItem> items) {
+        stockService.reserve(items);
+    }
+
+    @PostMapping("/release")
+    public void release(@RequestBody List<StockItem> items) {
+        stockService.release(items);
+    }
+}
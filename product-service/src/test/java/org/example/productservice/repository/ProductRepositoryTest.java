@@ -1,21 +1,36 @@
 package org.example.productservice.repository;
 
 import org.example.productservice.entity.Product;
+import org.example.productservice.model.ProductFilter;
+import org.example.productservice.model.ProductView;
+import org.example.productservice.model.VersionWatermark;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
-
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("ProductRepository Tests")
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.example.productservice.repository.ProductRepositoryTest$SqlCapture")
 class ProductRepositoryTest {
 
     @Autowired
@@ -221,5 +236,229 @@ class ProductRepositoryTest {
         assertNotNull(savedProduct.getId());
         assertNotEquals(0L, savedProduct.getId());
     }
-}
 
+    @Test
+    @DisplayName("Should return a slice of products without counting all rows")
+    void testFindBySlice() {
+        productRepository.saveAll(Arrays.asList(product1, product2));
+        entityManager.flush();
+
+        Slice<Product> firstPage = productRepository.findBy(PageRequest.of(0, 1, Sort.by("id")));
+        Slice<Product> secondPage = productRepository.findBy(PageRequest.of(1, 1, Sort.by("id")));
+
+        assertEquals(1, firstPage.getNumberOfElements());
+        assertEquals("Laptop", firstPage.getContent().get(0).getName());
+        assertTrue(firstPage.hasNext());
+        assertEquals("Mouse", secondPage.getContent().get(0).getName());
+        assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    @DisplayName("Should return products after the given id for keyset pagination")
+    void testFindByIdGreaterThan() {
+        Product saved1 = productRepository.save(product1);
+        productRepository.save(product2);
+        entityManager.flush();
+
+        Slice<Product> nextPage = productRepository.findByIdGreaterThan(saved1.getId(), PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(1, nextPage.getNumberOfElements());
+        assertEquals("Mouse", nextPage.getContent().get(0).getName());
+        assertFalse(nextPage.hasNext());
+    }
+
+    @Test
+    @DisplayName("Should decrement quantity only when enough stock is left")
+    void testDecrementQuantity() {
+        Product saved = productRepository.save(product1);
+        entityManager.flush();
+
+        assertEquals(1, productRepository.decrementQuantity(saved.getId(), 4));
+        assertEquals(1, productRepository.decrementQuantity(saved.getId(), 6));
+        assertEquals(0, productRepository.decrementQuantity(saved.getId(), 1));
+        entityManager.clear();
+
+        assertEquals(0, productRepository.findById(saved.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should increment quantity when stock is released")
+    void testIncrementQuantity() {
+        Product saved = productRepository.save(product1);
+        entityManager.flush();
+
+        assertEquals(1, productRepository.incrementQuantity(saved.getId(), 5));
+        assertEquals(0, productRepository.incrementQuantity(999L, 5));
+        entityManager.clear();
+
+        assertEquals(15, productRepository.findById(saved.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should bump the version when stock is changed in bulk")
+    void testDecrementQuantity_BumpsVersion() {
+        Product saved = productRepository.save(product1);
+        entityManager.flush();
+        Long version = saved.getVersion();
+
+        productRepository.decrementQuantity(saved.getId(), 1);
+        entityManager.clear();
+
+        assertEquals(version + 1, productRepository.findById(saved.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should default the hot flag of rows written without it")
+    void testHot_DefaultsToFalse() {
+        entityManager.getEntityManager().createNativeQuery("insert into product (name, price, quantity, version) " +
+                "values ('Legacy', 5.0, 3, 0)").executeUpdate();
+        entityManager.clear();
+
+        Product legacy = productRepository.findAll().get(0);
+
+        assertFalse(legacy.isHot());
+        assertTrue(productRepository.findByHotTrue().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should default the version of rows written without one, so they can still be updated")
+    void testVersion_DefaultsToZero() {
+        entityManager.getEntityManager().createNativeQuery("insert into product (name, price, quantity) " +
+                "values ('Legacy', 5.0, 3)").executeUpdate();
+        entityManager.clear();
+
+        Product legacy = productRepository.findAll().get(0);
+        assertEquals(0L, legacy.getVersion());
+        legacy.setPrice(6.0);
+        entityManager.flush();
+        productRepository.decrementQuantity(legacy.getId(), 1);
+        entityManager.clear();
+
+        assertEquals(2L, productRepository.findById(legacy.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should change the watermark when a product is added or updated")
+    void testFindWatermark() {
+        assertEquals(new VersionWatermark(0L, 0L, 0L), productRepository.findWatermark());
+        Product saved = productRepository.save(product1);
+        entityManager.flush();
+        VersionWatermark afterInsert = productRepository.findWatermark();
+
+        saved.setPrice(899.99);
+        entityManager.flush();
+        VersionWatermark afterUpdate = productRepository.findWatermark();
+
+        assertEquals(1L, afterInsert.count());
+        assertEquals(saved.getId(), afterInsert.maxId());
+        assertNotEquals(afterInsert, afterUpdate);
+        assertEquals(afterInsert.versionSum() + 1, afterUpdate.versionSum());
+    }
+
+    @Test
+    @DisplayName("Should filter by price range and stock, sorted by price")
+    void testFindBy_Specification() {
+        Product keyboard = Product.builder().name("Keyboard").price(79.99).quantity(0).build();
+        productRepository.saveAll(Arrays.asList(product1, product2, keyboard));
+        entityManager.flush();
+
+        Slice<Product> inRange = productRepository.findBy(
+                ProductSpecifications.of(new ProductFilter(20.0, 100.0, null), null),
+                query -> query.slice(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price"))));
+        Slice<Product> inStock = productRepository.findBy(
+                ProductSpecifications.of(new ProductFilter(20.0, 100.0, true), null),
+                query -> query.slice(PageRequest.of(0, 10, Sort.by("price"))));
+
+        assertEquals(Arrays.asList("Keyboard", "Mouse"), inRange.map(Product::getName).getContent());
+        assertEquals(List.of("Mouse"), inStock.map(Product::getName).getContent());
+    }
+
+    @Test
+    @DisplayName("Should read only the matching rows through the price and quantity indexes")
+    void testFilter_UsesIndexes() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            products.add(Product.builder().name("Product " + i).price((double) i).quantity(i % 100 == 0 ? 5 : 0).build());
+        productRepository.saveAll(products);
+        entityManager.flush();
+
+        // Plans des requêtes réellement générées par les Specifications : prédicats, offset puis limite de la page
+        String pricePlan = explain(new ProductFilter(100.0, 109.0, null), Sort.by("price", "id"), 100.0, 109.0, 0, 21);
+        String stockPlan = explain(new ProductFilter(null, null, true), Sort.by("id"), 1, 0, 21);
+
+        assertTrue(pricePlan.contains("IDX_PRODUCT_PRICE"), pricePlan);
+        assertTrue(stockPlan.contains("IDX_PRODUCT_QUANTITY"), stockPlan);
+        // Le nombre de lignes lues suit le nombre de résultats, pas les 2000 lignes de la table
+        assertTrue(scanCount(pricePlan) < 100, pricePlan);
+        assertTrue(scanCount(stockPlan) < 100, stockPlan);
+    }
+
+    @Test
+    @DisplayName("Should select list views without the description")
+    void testFindViews() {
+        productRepository.saveAll(Arrays.asList(product1, product2));
+        entityManager.flush();
+        entityManager.clear();
+
+        Slice<ProductView> views = productRepository.findViews(0L, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price")));
+
+        assertEquals(2, views.getNumberOfElements());
+        assertEquals(new ProductView(product1.getId(), "Laptop", 999.99, 10), views.getContent().get(0));
+        assertEquals(List.of(product2.getId()),
+                productRepository.findViews(product1.getId(), Pageable.unpaged(Sort.by("id"))).map(ProductView::id).getContent());
+    }
+
+    // Capture le SQL généré pour la Specification puis l'explique avec les mêmes paramètres
+    private String explain(ProductFilter filter, Sort sort, Object... parameters) {
+        SqlCapture.start();
+        productRepository.findBy(ProductSpecifications.of(filter, null),
+                query -> query.slice(PageRequest.of(0, 20, sort)));
+        String sql = SqlCapture.stop();
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain analyze " + sql)) {
+                assertEquals(parameters.length, statement.getParameterMetaData().getParameterCount(), sql);
+                for (int i = 0; i < parameters.length; i++)
+                    statement.setObject(i + 1, parameters[i]);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertTrue(resultSet.next(), sql);
+                    return resultSet.getString(1).toUpperCase();
+                }
+            }
+        });
+    }
+
+    private static int scanCount(String plan) {
+        Matcher matcher = Pattern.compile("SCANCOUNT: (\\d+)").matcher(plan);
+        assertTrue(matcher.find(), plan);
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    /**
+     * Keeps the last product select prepared by Hibernate on the current
+     * thread while a capture is running.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        private static final ThreadLocal<String> CAPTURED = new ThreadLocal<>();
+        private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> false);
+
+        static void start() {
+            ACTIVE.set(true);
+            CAPTURED.remove();
+        }
+
+        static String stop() {
+            ACTIVE.set(false);
+            String sql = CAPTURED.get();
+            assertNotNull(sql, "No SQL captured");
+            return sql;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (ACTIVE.get() && sql.startsWith("select"))
+                CAPTURED.set(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.productservice.service;
+
+import org.example.productservice.entity.Product;
+import org.example.productservice.exception.InsufficientStockException;
+import org.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HotStockRegistry Tests")
+class HotStockRegistryTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HotStockRegistry hotStockRegistry;
+
+    // Quantité de la ligne product 1, partagée par toutes les instances
+    private final AtomicInteger row = new AtomicInteger(100);
+
+    @BeforeEach
+    void setUp() {
+        hotStockRegistry = new HotStockRegistry(productRepository, transactionManager, 4, 10);
+    }
+
+    @Test
+    @DisplayName("Should track hot products on startup without reading their stock")
+    void testLoad() {
+        when(productRepository.findByHotTrue())
+                .thenReturn(List.of(Product.builder().id(1L).quantity(100).hot(true).build()));
+
+        hotStockRegistry.load();
+
+        assertTrue(hotStockRegistry.isHot(1L));
+        assertFalse(hotStockRegistry.isHot(2L));
+        assertEquals(0, hotStockRegistry.available(1L));
+    }
+
+    @Test
+    @DisplayName("Should lease stock from the row and sell from the lease")
+    void testTryReserve_Lease() {
+        stubRow();
+        hotStockRegistry.track(1L);
+
+        assertTrue(hotStockRegistry.tryReserve(1L, 3));
+        assertTrue(hotStockRegistry.tryReserve(1L, 7));
+        assertTrue(hotStockRegistry.tryReserve(1L, 4));
+
+        assertEquals(80, row.get());
+        assertEquals(6, hotStockRegistry.available(1L));
+        verify(productRepository, times(2)).decrementQuantity(1L, 10);
+    }
+
+    @Test
+    @DisplayName("Should lease what is left of the row and fail beyond it")
+    void testTryReserve_LastUnits() {
+        row.set(4);
+        stubRow();
+        hotStockRegistry.track(1L);
+
+        assertTrue(hotStockRegistry.tryReserve(1L, 3));
+        assertThrows(InsufficientStockException.class, () -> hotStockRegistry.tryReserve(1L, 2));
+        assertTrue(hotStockRegistry.tryReserve(1L, 1));
+
+        assertEquals(0, row.get());
+    }
+
+    @Test
+    @DisplayName("Should leave products that are not hot to their row")
+    void testTryReserve_NotHot() {
+        assertFalse(hotStockRegistry.tryReserve(2L, 1));
+        assertFalse(hotStockRegistry.release(2L, 1));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should never sell more than the row across instances")
+    void testTryReserve_SeveralInstances() {
+        stubRow();
+        HotStockRegistry other = new HotStockRegistry(productRepository, transactionManager, 4, 30);
+        hotStockRegistry.track(1L);
+        other.track(1L);
+
+        int sold = 0;
+        for (int i = 0; i < 200; i++) {
+            HotStockRegistry instance = i % 2 == 0 ? hotStockRegistry : other;
+            try {
+                if (instance.tryReserve(1L, 1))
+                    sold++;
+            } catch (InsufficientStockException e) {
+                // rupture sur cette instance
+            }
+        }
+
+        assertEquals(100, sold);
+        assertEquals(0, row.get());
+    }
+
+    @Test
+    @DisplayName("Should return stock released beyond one lease to the row")
+    void testFlush() {
+        stubRow();
+        hotStockRegistry.track(1L);
+        hotStockRegistry.tryReserve(1L, 5);
+        hotStockRegistry.release(1L, 5);
+        hotStockRegistry.release(1L, 12);
+
+        hotStockRegistry.flush();
+        hotStockRegistry.flush();
+
+        verify(productRepository, times(1)).incrementQuantity(1L, 12);
+        assertEquals(10, hotStockRegistry.available(1L));
+    }
+
+    @Test
+    @DisplayName("Should keep the excess leased when it cannot be returned")
+    void testFlush_Failure() {
+        hotStockRegistry.track(1L);
+        hotStockRegistry.release(1L, 15);
+        when(productRepository.incrementQuantity(1L, 5))
+                .thenThrow(new RuntimeException("database unavailable"))
+                .thenReturn(1);
+
+        hotStockRegistry.flush();
+        assertEquals(15, hotStockRegistry.available(1L));
+        hotStockRegistry.flush();
+
+        verify(productRepository, times(2)).incrementQuantity(1L, 5);
+        assertEquals(10, hotStockRegistry.available(1L));
+    }
+
+    @Test
+    @DisplayName("Should return the lease when a product is no longer hot")
+    void testUntrack() {
+        stubRow();
+        hotStockRegistry.track(1L);
+        hotStockRegistry.tryReserve(1L, 7);
+
+        hotStockRegistry.untrack(1L);
+
+        assertFalse(hotStockRegistry.isHot(1L));
+        assertEquals(93, row.get());
+        assertFalse(hotStockRegistry.tryReserve(1L, 1));
+    }
+
+    @Test
+    @DisplayName("Should drop the lease when the quantity is typed in again")
+    void testReset() {
+        stubRow();
+        hotStockRegistry.track(1L);
+        hotStockRegistry.tryReserve(1L, 7);
+
+        hotStockRegistry.reset(1L);
+
+        assertTrue(hotStockRegistry.isHot(1L));
+        assertEquals(0, hotStockRegistry.available(1L));
+        verify(productRepository, never()).incrementQuantity(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return every lease on shutdown")
+    void testShutdown() {
+        stubRow();
+        hotStockRegistry.track(1L);
+        hotStockRegistry.tryReserve(1L, 4);
+
+        hotStockRegistry.shutdown();
+
+        assertEquals(96, row.get());
+        assertFalse(hotStockRegistry.tryReserve(1L, 1));
+    }
+
+    private void stubRow() {
+        lenient().when(productRepository.decrementQuantity(eq(1L), anyInt())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            return row.getAndUpdate(q -> q >= quantity ? q - quantity : q) >= quantity ? 1 : 0;
+        });
+        lenient().when(productRepository.findQuantityById(1L)).thenAnswer(invocation -> Optional.of(row.get()));
+        lenient().when(productRepository.incrementQuantity(eq(1L), anyInt()))
+                .thenAnswer(invocation -> {
+                    row.addAndGet(invocation.getArgument(1));
+                    return 1;
+                });
+    }
+}
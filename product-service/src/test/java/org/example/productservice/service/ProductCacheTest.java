@@ -0,0 +1,116 @@
+package org.example.productservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.productservice.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductCache Tests")
+class ProductCacheTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20, Sort.by("id"));
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache productCache;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCache = new ProductCache(100, 10, Duration.ofMinutes(1), meterRegistry);
+        product = Product.builder().id(1L).name("Laptop").price(999.99).quantity(10).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Should run a single loader for concurrent misses on the same key")
+    void testGet_SingleLoaderPerKey() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Product>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return productCache.get(1L, id -> {
+                        loads.incrementAndGet();
+                        sleep(50);
+                        return product;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Product> future : futures)
+                assertSame(product, future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should publish the hit ratio")
+    void testHitRatio() {
+        productCache.get(1L, id -> product);
+        productCache.get(1L, id -> product);
+        productCache.get(1L, id -> product);
+        productCache.get(1L, id -> product);
+
+        assertEquals(0.75, meterRegistry.get("cache.hit.ratio").tag("cache", "products").gauge().value(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should invalidate the product and the catalog pages")
+    void testInvalidate() {
+        productCache.get(1L, id -> product);
+        productCache.page(FIRST_PAGE, null, () -> new SliceImpl<>(List.of(product), FIRST_PAGE, false));
+
+        productCache.invalidate(1L);
+
+        assertNull(productCache.get(1L, id -> null));
+        assertFalse(productCache.page(FIRST_PAGE, null, () -> new SliceImpl<>(List.of(), FIRST_PAGE, false)).hasContent());
+    }
+
+    @Test
+    @DisplayName("Should only invalidate once the transaction has committed")
+    void testInvalidate_AfterCommit() {
+        productCache.get(1L, id -> product);
+        TransactionSynchronizationManager.initSynchronization();
+
+        productCache.invalidate(1L);
+        assertSame(product, productCache.get(1L, id -> null));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertNull(productCache.get(1L, id -> null));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.productservice.service;
+
+import org.example.productservice.entity.Product;
+import org.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ProductSearchIndex Tests")
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductRepository.class), 2, 1000);
+        index.index(product(1L, "Laptop Pro", "High performance laptop"));
+        index.index(product(2L, "Wireless Mouse", "Ergonomic mouse for laptops"));
+        index.index(product(3L, "Clavier mécanique", "Mechanical keyboard"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Should lower-case, strip accents and split on punctuation")
+    void testTokenize() {
+        assertEquals(List.of("clavier", "mecanique", "usb", "c"), ProductSearchIndex.tokenize("Clavier Mécanique, USB-C"));
+        assertTrue(ProductSearchIndex.tokenize("  ").isEmpty());
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rank name matches above description matches")
+    void testSearch_Ranking() {
+        assertEquals(List.of(1L, 2L), index.search("laptop", 10));
+    }
+
+    @Test
+    @DisplayName("Should match terms by prefix and ignore accents in the query")
+    void testSearch_Prefix() {
+        assertEquals(List.of(2L), index.search("wire", 10));
+        assertEquals(List.of(3L), index.search("MECA", 10));
+        assertTrue(index.search("l", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should only return products matching every token")
+    void testSearch_AllTokens() {
+        assertEquals(List.of(2L), index.search("mouse lap", 10));
+        assertTrue(index.search("mouse keyboard", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return at most the requested number of products")
+    void testSearch_Limit() {
+        assertEquals(List.of(1L), index.search("laptop", 1));
+    }
+
+    @Test
+    @DisplayName("Should replace the terms of a re-indexed product and forget removed ones")
+    void testIndex_Update() {
+        index.index(product(1L, "Tablet", "Touch screen"));
+        index.remove(2L);
+
+        assertTrue(index.search("laptop", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("tab", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should only index once the transaction has committed")
+    void testIndex_AfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.index(product(4L, "Monitor", "4K display"));
+        assertTrue(index.search("monitor", 10).isEmpty());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of(4L), index.search("monitor", 10));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index from the repository page by page")
+    void testRebuild() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        Pageable pageable = PageRequest.of(0, 2, org.springframework.data.domain.Sort.by("id"));
+        when(productRepository.findBy(any(Pageable.class))).thenReturn(new SliceImpl<>(
+                List.of(product(1L, "Laptop", null), product(2L, "Mouse", null)), pageable, true));
+        when(productRepository.findByIdGreaterThan(eq(2L), any(Pageable.class))).thenReturn(new SliceImpl<>(
+                List.of(product(5L, "Laptop bag", null)), pageable, false));
+        ProductSearchIndex rebuilt = new ProductSearchIndex(productRepository, 2, 2);
+
+        rebuilt.rebuild();
+
+        assertEquals(3, rebuilt.size());
+        assertEquals(List.of(1L, 5L), rebuilt.search("laptop", 10));
+    }
+
+    private static Product product(Long id, String name, String description) {
+        return Product.builder().id(id).name(name).description(description).price(10.0).quantity(1).build();
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.productservice.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.productservice.entity.Product;
 import org.example.productservice.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,14 +9,22 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +34,15 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private HotStockRegistry hotStockRegistry;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, 10, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -101,6 +119,64 @@ class ProductServiceImplTest {
         verify(productRepository, times(1)).findAll();
     }
 
+    @Test
+    @DisplayName("Should serve catalog pages from the cache after the first load")
+    void testFindAllPaged_Cached() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
+        when(productRepository.findBy(pageable)).thenReturn(new SliceImpl<>(Arrays.asList(product1, product2), pageable, false));
+        when(productRepository.findByIdGreaterThan(2L, pageable)).thenReturn(new SliceImpl<>(Arrays.asList(product3), pageable, false));
+
+        productService.findAll(pageable, null);
+        productService.findAll(pageable, 2L);
+        Slice<Product> first = productService.findAll(pageable, null);
+        Slice<Product> next = productService.findAll(pageable, 2L);
+
+        assertEquals(Arrays.asList(product1, product2), first.getContent());
+        assertEquals(List.of(product3), next.getContent());
+        verify(productRepository, times(1)).findBy(pageable);
+        verify(productRepository, times(1)).findByIdGreaterThan(2L, pageable);
+    }
+
+    @Test
+    @DisplayName("Should reload catalog pages after a product is saved")
+    void testFindAllPaged_InvalidatedBySave() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
+        when(productRepository.findBy(pageable)).thenReturn(new SliceImpl<>(Arrays.asList(product1), pageable, false));
+
+        productService.findAll(pageable, null);
+        productService.save(product2);
+        productService.findAll(pageable, null);
+
+        verify(productRepository, times(2)).findBy(pageable);
+    }
+
+    @Test
+    @DisplayName("Should use offset pagination when no cursor is given")
+    void testFindAllPaged_Offset() {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("id"));
+        when(productRepository.findBy(pageable)).thenReturn(new SliceImpl<>(Arrays.asList(product3), pageable, false));
+
+        Slice<Product> slice = productService.findAll(pageable, null);
+
+        assertEquals(1, slice.getNumberOfElements());
+        verify(productRepository, times(1)).findBy(pageable);
+        verify(productRepository, never()).findByIdGreaterThan(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should use keyset pagination when a cursor is given")
+    void testFindAllPaged_Keyset() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+        when(productRepository.findByIdGreaterThan(1L, pageable))
+                .thenReturn(new SliceImpl<>(Arrays.asList(product2, product3), pageable, true));
+
+        Slice<Product> slice = productService.findAll(pageable, 1L);
+
+        assertEquals(2, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        verify(productRepository, never()).findBy(any());
+    }
+
     // ==================== Tests for findById() ====================
 
     @Test
@@ -133,10 +209,112 @@ class ProductServiceImplTest {
     @Test
     @DisplayName("Should throw exception for null ID")
     void testFindById_NullId() {
-        when(productRepository.findById(null)).thenReturn(Optional.empty());
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> productService.findById(null));
+
+        assertEquals("Product id is required", exception.getMessage());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should serve a product from the cache after the first load")
+    void testFindById_Cached() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.findById(1L);
+        Product actualProduct = productService.findById(1L);
+
+        assertEquals("Laptop", actualProduct.getName());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache a missing product")
+    void testFindById_MissingNotCached() {
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> productService.findById(999L));
+        assertThrows(RuntimeException.class, () -> productService.findById(999L));
+
+        verify(productRepository, times(2)).findById(999L);
+    }
+
+    @Test
+    @DisplayName("Should reload a product after it is updated or deleted")
+    void testFindById_InvalidatedByWrites() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.findById(1L);
+        productService.update(1L, Product.builder().name("Updated Laptop").build());
+        productService.findById(1L);
+        productService.deleteById(1L);
+        productService.findById(1L);
+
+        // update() relit aussi le produit
+        verify(productRepository, times(4)).findById(1L);
+        verify(productCache, times(2)).invalidate(1L);
+    }
+
+    // ==================== Tests for findAllById() ====================
+
+    @Test
+    @DisplayName("Should return all products matching the given IDs in one repository call")
+    void testFindAllById_Success() {
+        List<Long> ids = Arrays.asList(3L, 1L);
+        when(productRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(product1, product3));
+
+        List<Product> actualProducts = productService.findAllById(ids);
+
+        assertEquals(Arrays.asList(product3, product1), actualProducts);
+        verify(productRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Should skip IDs that do not exist")
+    void testFindAllById_MissingIds() {
+        when(productRepository.findAllById(List.of(999L))).thenReturn(List.of());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        productService.findById(1L);
+
+        List<Product> actualProducts = productService.findAllById(Arrays.asList(1L, 999L));
+
+        assertEquals(List.of(product1), actualProducts);
+        verify(productRepository, times(1)).findAllById(List.of(999L));
+    }
+
+    @Test
+    @DisplayName("Should load only the products missing from the cache")
+    void testFindAllById_Cached() {
+        when(productRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(product1, product3));
+        productService.findAllById(Arrays.asList(1L, 3L));
+        when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(product2));
+
+        List<Product> actualProducts = productService.findAllById(Arrays.asList(1L, 2L, 3L, 2L, null));
+
+        assertEquals(Arrays.asList(product1, product2, product3), actualProducts);
+        verify(productRepository, times(1)).findAllById(List.of(2L));
+    }
+
+    // ==================== Tests for search() ====================
+
+    @Test
+    @DisplayName("Should return the matching products in ranking order")
+    void testSearch_KeepsRanking() {
+        List<Long> ids = Arrays.asList(3L, 1L);
+        when(productSearchIndex.search("key", 20)).thenReturn(ids);
+        when(productRepository.findAllById(ids)).thenReturn(Arrays.asList(product1, product3));
+
+        List<Product> actualProducts = productService.search("key", 20);
 
-        assertThrows(RuntimeException.class, () -> productService.findById(null));
-        verify(productRepository, times(1)).findById(null);
+        assertEquals(Arrays.asList(product3, product1), actualProducts);
+    }
+
+    @Test
+    @DisplayName("Should not query the database when nothing matches")
+    void testSearch_NoMatch() {
+        when(productSearchIndex.search("nothing", 20)).thenReturn(List.of());
+
+        assertTrue(productService.search("nothing", 20).isEmpty());
+        verifyNoInteractions(productRepository);
     }
 
     // ==================== Tests for save() ====================
@@ -313,6 +491,73 @@ class ProductServiceImplTest {
         assertEquals(10, product1.getQuantity()); // Should not update to 0
     }
 
+    @Test
+    @DisplayName("Should drop the leased stock when the quantity of a hot product is updated")
+    void testUpdate_HotProductQuantity() {
+        product1.setHot(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.update(1L, Product.builder().quantity(40).build());
+
+        assertEquals(40, product1.getQuantity());
+        verify(hotStockRegistry, times(1)).reset(1L);
+    }
+
+    @Test
+    @DisplayName("Should keep the in-memory stock when other fields of a hot product are updated")
+    void testUpdate_HotProductName() {
+        product1.setHot(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.update(1L, Product.builder().name("Promo Laptop").build());
+
+        verifyNoInteractions(hotStockRegistry);
+    }
+
+    // ==================== Tests for setHot() ====================
+
+    @Test
+    @DisplayName("Should flag a product as hot and start tracking its stock in memory")
+    void testSetHot_Enable() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.setHot(1L, true);
+
+        assertTrue(product1.isHot());
+        verify(hotStockRegistry, times(1)).track(1L);
+    }
+
+    @Test
+    @DisplayName("Should clear the hot flag and hand the leased stock back")
+    void testSetHot_Disable() {
+        product1.setHot(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.setHot(1L, false);
+
+        assertFalse(product1.isHot());
+        verify(hotStockRegistry, times(1)).untrack(1L);
+        verify(hotStockRegistry, never()).track(any());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the hot flag does not change")
+    void testSetHot_Unchanged() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+        productService.setHot(1L, false);
+
+        verifyNoInteractions(hotStockRegistry);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when flagging an unknown product")
+    void testSetHot_NotFound() {
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> productService.setHot(999L, true));
+    }
+
     // ==================== Tests for deleteById() ====================
 
     @Test
@@ -320,6 +565,7 @@ class ProductServiceImplTest {
     void testDeleteById_Success() {
         productService.deleteById(1L);
         verify(productRepository, times(1)).deleteById(1L);
+        verify(hotStockRegistry, times(1)).remove(1L);
     }
 
     @Test
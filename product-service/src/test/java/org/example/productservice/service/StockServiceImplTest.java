@@ -0,0 +1,201 @@
+package org.example.productservice.service;
+
+import org.example.productservice.exception.InsufficientStockException;
+import org.example.productservice.model.StockItem;
+import org.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockServiceImpl Tests")
+class StockServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private HotStockRegistry hotStockRegistry;
+
+    private final TestTransactionManager transactionManager = new TestTransactionManager();
+
+    private StockServiceImpl stockService;
+
+    @BeforeEach
+    void setUp() {
+        stockService = new StockServiceImpl(productRepository, hotStockRegistry, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should reserve each product once, in id order, with merged quantities")
+    void testReserve_Success() {
+        when(productRepository.decrementQuantity(anyLong(), anyInt())).thenReturn(1);
+
+        stockService.reserve(List.of(new StockItem(2L, 1), new StockItem(1L, 3), new StockItem(2L, 4)));
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementQuantity(1L, 3);
+        inOrder.verify(productRepository).decrementQuantity(2L, 5);
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw InsufficientStockException when a product lacks stock")
+    void testReserve_InsufficientStock() {
+        when(productRepository.decrementQuantity(1L, 3)).thenReturn(1);
+        when(productRepository.decrementQuantity(2L, 100)).thenReturn(0);
+        when(productRepository.existsById(2L)).thenReturn(true);
+
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> stockService.reserve(List.of(new StockItem(1L, 3), new StockItem(2L, 100))));
+
+        assertEquals(2L, exception.getProductId());
+        assertEquals("Insufficient stock for product with id: 2", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when reserving an unknown product")
+    void testReserve_ProductNotFound() {
+        when(productRepository.decrementQuantity(999L, 1)).thenReturn(0);
+        when(productRepository.existsById(999L)).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> stockService.reserve(List.of(new StockItem(999L, 1))));
+
+        assertEquals("Product not found with id: 999", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive quantities before touching stock")
+    void testReserve_InvalidQuantity() {
+        assertThrows(RuntimeException.class,
+                () -> stockService.reserve(List.of(new StockItem(1L, 2), new StockItem(2L, 0))));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should reserve hot products from their lease without touching their rows")
+    void testReserve_HotProduct() {
+        // Le bail ne doit pas attendre avec une connexion déjà prise
+        when(hotStockRegistry.tryReserve(1L, 3)).thenAnswer(invocation -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            return true;
+        });
+        when(productRepository.decrementQuantity(2L, 1)).thenReturn(1);
+
+        stockService.reserve(List.of(new StockItem(1L, 3), new StockItem(2L, 1)));
+
+        verify(productRepository, never()).decrementQuantity(eq(1L), anyInt());
+        verify(productRepository, times(1)).decrementQuantity(2L, 1);
+    }
+
+    @Test
+    @DisplayName("Should give hot stock back when another product of the reservation fails")
+    void testReserve_HotProductRolledBack() {
+        when(hotStockRegistry.tryReserve(1L, 3)).thenReturn(true);
+        when(productRepository.decrementQuantity(2L, 100)).thenReturn(0);
+        when(productRepository.existsById(2L)).thenReturn(true);
+
+        assertThrows(InsufficientStockException.class,
+                () -> stockService.reserve(List.of(new StockItem(1L, 3), new StockItem(2L, 100))));
+
+        verify(hotStockRegistry, times(1)).release(1L, 3);
+    }
+
+    @Test
+    @DisplayName("Should give hot stock back when the transaction fails to commit")
+    void testReserve_HotProductCommitFailure() {
+        when(hotStockRegistry.tryReserve(1L, 3)).thenReturn(true);
+        when(productRepository.decrementQuantity(2L, 1)).thenReturn(1);
+        transactionManager.failCommit = true;
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> stockService.reserve(List.of(new StockItem(1L, 3), new StockItem(2L, 1))));
+
+        verify(hotStockRegistry, times(1)).release(1L, 3);
+    }
+
+    @Test
+    @DisplayName("Should keep hot stock reserved once the transaction commits")
+    void testReserve_HotProductCommitted() {
+        when(hotStockRegistry.tryReserve(1L, 3)).thenReturn(true);
+
+        stockService.reserve(List.of(new StockItem(1L, 3)));
+
+        verify(hotStockRegistry, never()).release(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should throw InsufficientStockException when a hot product lacks stock")
+    void testReserve_HotProductInsufficientStock() {
+        when(hotStockRegistry.tryReserve(1L, 50)).thenThrow(new InsufficientStockException(1L));
+
+        assertThrows(InsufficientStockException.class, () -> stockService.reserve(List.of(new StockItem(1L, 50))));
+
+        verify(hotStockRegistry, never()).release(anyLong(), anyInt());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should release stock back to each product")
+    void testRelease_Success() {
+        when(productRepository.incrementQuantity(anyLong(), anyInt())).thenReturn(1);
+
+        stockService.release(List.of(new StockItem(1L, 2), new StockItem(1L, 1)));
+
+        verify(productRepository).incrementQuantity(1L, 3);
+    }
+
+    @Test
+    @DisplayName("Should release hot products to their lease without touching their rows")
+    void testRelease_HotProduct() {
+        when(hotStockRegistry.release(1L, 2)).thenReturn(true);
+
+        stockService.release(List.of(new StockItem(1L, 2)));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    // Gestionnaire sans ressource : de vraies synchronisations, un commit qui peut échouer
+    private static class TestTransactionManager extends AbstractPlatformTransactionManager {
+
+        private boolean failCommit;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (failCommit)
+                throw new DataIntegrityViolationException("constraint violated on commit");
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
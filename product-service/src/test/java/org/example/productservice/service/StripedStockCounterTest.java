@@ -0,0 +1,118 @@
+package org.example.productservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StripedStockCounter Tests")
+class StripedStockCounterTest {
+
+    @Test
+    @DisplayName("Should reserve while enough stock is left across stripes")
+    void testTryReserve() {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(10);
+
+        assertTrue(counter.tryReserve(7));
+        assertFalse(counter.tryReserve(4));
+        assertTrue(counter.tryReserve(3));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    @DisplayName("Should keep one lease and hand back the rest")
+    void testTakeExcess() {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(10);
+        counter.release(25);
+
+        assertEquals(15, counter.takeExcess(20));
+        assertEquals(20, counter.available());
+        assertEquals(0, counter.takeExcess(20));
+    }
+
+    @Test
+    @DisplayName("Should refuse reservations and leases once closed, and hand back late releases")
+    void testClose() {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(10);
+
+        assertEquals(10, counter.close());
+        assertFalse(counter.tryReserve(1));
+        assertFalse(counter.add(5));
+        assertFalse(counter.release(3));
+        assertEquals(3, counter.drain());
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    @DisplayName("Should never oversell under concurrent reservations")
+    void testTryReserve_Concurrent() throws Exception {
+        int threads = 8;
+        StripedStockCounter counter = new StripedStockCounter(threads);
+        counter.add(10_000);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        if (counter.tryReserve(1))
+                            reserved.incrementAndGet();
+                        if (i % 10 == 0)
+                            counter.tryReserve(Integer.MAX_VALUE);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10_000, reserved.get());
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    @DisplayName("Should not lose stock released while the counter is closed")
+    void testClose_ConcurrentReleases() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(1_000);
+        AtomicInteger handedBack = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        if (!counter.release(1))
+                            handedBack.addAndGet((int) counter.drain());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            handedBack.addAndGet((int) counter.close());
+            for (Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(3_000, handedBack.get() + counter.drain());
+    }
+}
@@ -2,12 +2,15 @@ package org.example.productservice.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.productservice.entity.Product;
+import org.example.productservice.model.VersionWatermark;
 import org.example.productservice.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,6 +21,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,6 +50,7 @@ class ProductControllerIntegrationTest {
                 .price(99.99)
                 .quantity(10)
                 .build();
+        when(productService.findWatermark()).thenReturn(new VersionWatermark(1L, 0L, 1L));
     }
 
     // ==================== Content Type Tests ====================
@@ -67,7 +72,7 @@ class ProductControllerIntegrationTest {
     @Test
     @DisplayName("Should return correct response headers")
     void testResponseHeaders() throws Exception {
-        when(productService.findAll()).thenReturn(Arrays.asList(product));
+        when(productService.findAll(any(Pageable.class), isNull())).thenReturn(new SliceImpl<>(Arrays.asList(product)));
 
         mockMvc.perform(get("/products")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -263,7 +268,7 @@ class ProductControllerIntegrationTest {
     @DisplayName("Should return multiple products with correct format")
     void testMultipleProductsFormat() throws Exception {
         List<Product> products = Arrays.asList(product);
-        when(productService.findAll()).thenReturn(products);
+        when(productService.findAll(any(Pageable.class), isNull())).thenReturn(new SliceImpl<>(products));
 
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
@@ -278,7 +283,7 @@ class ProductControllerIntegrationTest {
     @Test
     @DisplayName("Should support GET method for findAll")
     void testGetMethodForFindAll() throws Exception {
-        when(productService.findAll()).thenReturn(Arrays.asList());
+        when(productService.findAll(any(Pageable.class), isNull())).thenReturn(new SliceImpl<>(Arrays.asList()));
 
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk());
@@ -2,22 +2,32 @@ package org.example.productservice.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.productservice.entity.Product;
+import org.example.productservice.model.ProductFilter;
+import org.example.productservice.model.ProductView;
+import org.example.productservice.model.VersionWatermark;
 import org.example.productservice.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.dataformat.smile.SmileMapper;
 
 import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +45,8 @@ class ProductControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("id"));
+
     private Product product1;
     private Product product2;
     private Product product3;
@@ -64,15 +76,17 @@ class ProductControllerTest {
                 .price(79.99)
                 .quantity(25)
                 .build();
+
+        when(productService.findWatermark()).thenReturn(new VersionWatermark(3L, 0L, 3L));
     }
 
     // ==================== Tests for GET /products ====================
 
     @Test
-    @DisplayName("Should return all products with status 200")
+    @DisplayName("Should return the first page of products with status 200")
     void testFindAll_Success() throws Exception {
         List<Product> products = Arrays.asList(product1, product2, product3);
-        when(productService.findAll()).thenReturn(products);
+        when(productService.findAll(FIRST_PAGE, null)).thenReturn(new SliceImpl<>(products, FIRST_PAGE, false));
 
         mockMvc.perform(get("/products")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -86,26 +100,65 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[2].id").value(3))
                 .andExpect(jsonPath("$[2].name").value("Keyboard"));
 
-        verify(productService, times(1)).findAll();
+        verify(productService, times(1)).findAll(FIRST_PAGE, null);
+    }
+
+    @Test
+    @DisplayName("Should return 304 when the catalog has not changed")
+    void testFindAll_NotModified() throws Exception {
+        when(productService.findWatermark()).thenReturn(new VersionWatermark(2L, 7L, 2L));
+        when(productService.findAll(FIRST_PAGE, null)).thenReturn(new SliceImpl<>(Arrays.asList(product1, product2), FIRST_PAGE, false));
+
+        String etag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertEquals("\"2-7-2\"", etag);
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(productService, times(1)).findAll(FIRST_PAGE, null);
+    }
+
+    @Test
+    @DisplayName("Should return the default page size and a next link without paging parameters")
+    void testFindAll_DefaultPage() throws Exception {
+        when(productService.findAll(FIRST_PAGE, null))
+                .thenReturn(new SliceImpl<>(Arrays.asList(product1, product2), FIRST_PAGE, true));
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", containsString("size=20")))
+                .andExpect(header().string("Link", containsString("after=2")));
+    }
+
+    @Test
+    @DisplayName("Should check the catalog watermark before loading a page")
+    void testFindAll_PageNotModified() throws Exception {
+        when(productService.findWatermark()).thenReturn(new VersionWatermark(3L, 9L, 3L));
+
+        mockMvc.perform(get("/products").param("page", "0").header("If-None-Match", "\"3-9-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).findAll(any(Pageable.class), any());
     }
 
     @Test
     @DisplayName("Should return empty list when no products exist")
     void testFindAll_Empty() throws Exception {
-        when(productService.findAll()).thenReturn(Arrays.asList());
+        when(productService.findAll(FIRST_PAGE, null)).thenReturn(new SliceImpl<>(Arrays.asList(), FIRST_PAGE, false));
 
         mockMvc.perform(get("/products")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(productService, times(1)).findAll();
+        verify(productService, times(1)).findAll(FIRST_PAGE, null);
     }
 
     @Test
     @DisplayName("Should return single product in list")
     void testFindAll_SingleProduct() throws Exception {
-        when(productService.findAll()).thenReturn(Arrays.asList(product1));
+        when(productService.findAll(FIRST_PAGE, null)).thenReturn(new SliceImpl<>(Arrays.asList(product1), FIRST_PAGE, false));
 
         mockMvc.perform(get("/products")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -113,7 +166,107 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].name").value("Laptop"));
 
-        verify(productService, times(1)).findAll();
+        verify(productService, times(1)).findAll(FIRST_PAGE, null);
+    }
+
+    @Test
+    @DisplayName("Should return a keyset page with a link to the next page")
+    void testFindAll_KeysetPage() throws Exception {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+        when(productService.findAll(pageable, 1L))
+                .thenReturn(new SliceImpl<>(Arrays.asList(product2, product3), pageable, true));
+
+        mockMvc.perform(get("/products")
+                .param("after", "1")
+                .param("size", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Mouse"))
+                .andExpect(header().string("Link", containsString("after=3")))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")));
+
+        verify(productService, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should return an offset page without a link on the last page")
+    void testFindAll_LastOffsetPage() throws Exception {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("id"));
+        when(productService.findAll(eq(pageable), isNull()))
+                .thenReturn(new SliceImpl<>(Arrays.asList(product3), pageable, false));
+
+        mockMvc.perform(get("/products")
+                .param("page", "1")
+                .param("size", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    @DisplayName("Should clamp the requested page size to the server maximum")
+    void testFindAll_PageSizeClamped() throws Exception {
+        Pageable pageable = PageRequest.of(0, 100, Sort.by("id"));
+        when(productService.findAll(eq(pageable), isNull()))
+                .thenReturn(new SliceImpl<>(Arrays.asList(product1), pageable, false));
+
+        mockMvc.perform(get("/products")
+                .param("size", "100000")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(productService, times(1)).findAll(eq(pageable), isNull());
+    }
+
+    @Test
+    @DisplayName("Should filter by price and stock, sorted by price then id")
+    void testFindAll_Filtered() throws Exception {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")));
+        ProductFilter filter = new ProductFilter(20.0, 100.0, true);
+        when(productService.findAll(eq(filter), eq(pageable), isNull()))
+                .thenReturn(new SliceImpl<>(Arrays.asList(product3, product2), pageable, false));
+
+        mockMvc.perform(get("/products")
+                .param("minPrice", "20")
+                .param("maxPrice", "100")
+                .param("inStock", "true")
+                .param("sort", "price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Keyboard"));
+
+        verify(productService, never()).findAll();
+        verify(productService, never()).findAll(any(Pageable.class), any());
+    }
+
+    @Test
+    @DisplayName("Should reject sorting by an unsupported property")
+    void testFindAll_InvalidSort() throws Exception {
+        mockMvc.perform(get("/products").param("sort", "name"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/products").param("sort", "price").param("after", "3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return the first page of the summary view without descriptions")
+    void testFindAll_SummaryView() throws Exception {
+        when(productService.findViews(FIRST_PAGE, null)).thenReturn(new SliceImpl<>(Arrays.asList(
+                new ProductView(1L, "Laptop", 999.99, 10),
+                new ProductView(2L, "Mouse", 29.99, 50)), FIRST_PAGE, false));
+
+        mockMvc.perform(get("/products").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Laptop"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(header().exists("ETag"));
+
+        verify(productService, never()).findAll();
     }
 
     // ==================== Tests for GET /products/{id} ====================
@@ -135,6 +288,42 @@ class ProductControllerTest {
         verify(productService, times(1)).findById(1L);
     }
 
+    @Test
+    @DisplayName("Should return the product version as a strong ETag")
+    void testFindById_ETag() throws Exception {
+        product1.setVersion(3L);
+        when(productService.findById(1L)).thenReturn(product1);
+
+        mockMvc.perform(get("/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+    }
+
+    @Test
+    @DisplayName("Should let shared caches keep catalog reads")
+    void testFindById_CacheControl() throws Exception {
+        when(productService.findById(1L)).thenReturn(product1);
+        when(productService.search("laptop", 20)).thenReturn(List.of(product1));
+
+        mockMvc.perform(get("/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30, public, stale-while-revalidate=30"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+        mockMvc.perform(get("/products/search").param("q", "laptop"))
+                .andExpect(header().string("Cache-Control", containsString("public")));
+    }
+
+    @Test
+    @DisplayName("Should return 304 without a body when the product version matches")
+    void testFindById_NotModified() throws Exception {
+        product1.setVersion(3L);
+        when(productService.findById(1L)).thenReturn(product1);
+
+        mockMvc.perform(get("/products/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @DisplayName("Should return 500 when product not found")
     void testFindById_NotFound() throws Exception {
@@ -168,6 +357,84 @@ class ProductControllerTest {
         verify(productService, times(1)).findById(2L);
     }
 
+    // ==================== Tests for GET /products/batch ====================
+
+    @Test
+    @DisplayName("Should answer internal callers in Smile and browsers in JSON")
+    void testFindAllById_ContentNegotiation() throws Exception {
+        when(productService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
+
+        byte[] smile = mockMvc.perform(get("/products/batch").param("ids", "1", "2")
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        mockMvc.perform(get("/products/batch").param("ids", "1", "2")
+                        .accept("text/html,application/xhtml+xml,*/*;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        Product[] decoded = SmileMapper.shared().readValue(smile, Product[].class);
+        assertEquals(2, decoded.length);
+        assertEquals("Laptop", decoded[0].getName());
+    }
+
+    @Test
+    @DisplayName("Should return products for the requested IDs with status 200")
+    void testFindAllById_Success() throws Exception {
+        when(productService.findAllById(Arrays.asList(1L, 3L))).thenReturn(Arrays.asList(product1, product3));
+
+        mockMvc.perform(get("/products/batch")
+                .param("ids", "1", "3")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Laptop"))
+                .andExpect(jsonPath("$[1].name").value("Keyboard"));
+
+        verify(productService, times(1)).findAllById(Arrays.asList(1L, 3L));
+    }
+
+    @Test
+    @DisplayName("Should accept comma separated IDs")
+    void testFindAllById_CommaSeparated() throws Exception {
+        when(productService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
+
+        mockMvc.perform(get("/products/batch?ids=1,2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(productService, times(1)).findAllById(Arrays.asList(1L, 2L));
+        verify(productService, never()).findById(anyLong());
+    }
+
+    // ==================== Tests for GET /products/search ====================
+
+    @Test
+    @DisplayName("Should return the products matching the query with the default limit")
+    void testSearch_Success() throws Exception {
+        when(productService.search("lap", 20)).thenReturn(Arrays.asList(product1));
+
+        mockMvc.perform(get("/products/search").param("q", "lap"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Laptop"));
+
+        verify(productService, times(1)).search("lap", 20);
+    }
+
+    @Test
+    @DisplayName("Should cap the search limit to the maximum page size")
+    void testSearch_LimitCapped() throws Exception {
+        when(productService.search("lap", 100)).thenReturn(Arrays.asList());
+
+        mockMvc.perform(get("/products/search").param("q", "lap").param("limit", "1000"))
+                .andExpect(status().isOk());
+
+        verify(productService, times(1)).search("lap", 100);
+    }
+
     // ==================== Tests for POST /products ====================
 
     @Test
@@ -326,6 +593,15 @@ class ProductControllerTest {
         verify(productService, times(2)).update(anyLong(), any(Product.class));
     }
 
+    @Test
+    @DisplayName("Should flag a product as hot with status 200")
+    void testSetHot_Success() throws Exception {
+        mockMvc.perform(put("/products/1/hot").param("enabled", "true"))
+                .andExpect(status().isOk());
+
+        verify(productService, times(1)).setHot(1L, true);
+    }
+
     // ==================== Tests for DELETE /products/{id} ====================
 
     @Test
@@ -416,7 +692,7 @@ class ProductControllerTest {
     @Test
     @DisplayName("Should handle concurrent requests properly")
     void testConcurrentRequests() throws Exception {
-        when(productService.findAll()).thenReturn(Arrays.asList(product1, product2));
+        when(productService.findAll(FIRST_PAGE, null)).thenReturn(new SliceImpl<>(Arrays.asList(product1, product2), FIRST_PAGE, false));
         when(productService.findById(1L)).thenReturn(product1);
         when(productService.findById(2L)).thenReturn(product2);
 
@@ -433,7 +709,7 @@ class ProductControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        verify(productService, times(1)).findAll();
+        verify(productService, times(1)).findAll(FIRST_PAGE, null);
         verify(productService, times(1)).findById(1L);
         verify(productService, times(1)).findById(2L);
     }
@@ -0,0 +1,101 @@
+package org.example.productservice.web;
+
+import org.example.productservice.config.JwtAuthConverter;
+import org.example.productservice.config.SecurityConfig;
+import org.example.productservice.service.StockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StockController.class)
+@Import({SecurityConfig.class, JwtAuthConverter.class})
+@DisplayName("StockController Security Tests")
+class StockControllerSecurityTest {
+
+    private static final String ITEMS = "[{\"productId\":1,\"quantity\":2}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StockService stockService;
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtDecoder.decode("service-token")).thenReturn(jwt("stock:write"));
+        when(jwtDecoder.decode("user-token")).thenReturn(jwt("openid profile",
+                Map.of("realm_access", Map.of("roles", List.of("ADMIN", "USER")))));
+    }
+
+    @Test
+    @DisplayName("Should reserve and release stock with the stock:write scope")
+    void testStock_ServiceScope() throws Exception {
+        mockMvc.perform(post("/products/reserve").header(HttpHeaders.AUTHORIZATION, "Bearer service-token")
+                        .contentType(MediaType.APPLICATION_JSON).content(ITEMS))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/products/release").header(HttpHeaders.AUTHORIZATION, "Bearer service-token")
+                        .contentType(MediaType.APPLICATION_JSON).content(ITEMS))
+                .andExpect(status().isOk());
+
+        verify(stockService).reserve(anyList());
+        verify(stockService).release(anyList());
+    }
+
+    @Test
+    @DisplayName("Should return 403 for a user token, even an admin one")
+    void testStock_UserToken() throws Exception {
+        mockMvc.perform(post("/products/reserve").header(HttpHeaders.AUTHORIZATION, "Bearer user-token")
+                        .contentType(MediaType.APPLICATION_JSON).content(ITEMS))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/products/release/").header(HttpHeaders.AUTHORIZATION, "Bearer user-token")
+                        .contentType(MediaType.APPLICATION_JSON).content(ITEMS))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(stockService);
+    }
+
+    @Test
+    @DisplayName("Should return 401 without a token")
+    void testStock_Anonymous() throws Exception {
+        mockMvc.perform(post("/products/reserve").contentType(MediaType.APPLICATION_JSON).content(ITEMS))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(stockService);
+    }
+
+    private static Jwt jwt(String scope) {
+        return jwt(scope, Map.of());
+    }
+
+    private static Jwt jwt(String scope, Map<String, Object> claims) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("subject")
+                .claim("scope", scope)
+                .claims(c -> c.putAll(claims))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+}
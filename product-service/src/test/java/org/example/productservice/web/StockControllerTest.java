@@ -0,0 +1,71 @@
+package org.example.productservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.productservice.exception.InsufficientStockException;
+import org.example.productservice.model.StockItem;
+import org.example.productservice.service.StockService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StockController.class)
+@DisplayName("StockController Tests")
+class StockControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StockService stockService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should reserve stock with status 200")
+    void testReserve_Success() throws Exception {
+        List<StockItem> items = List.of(new StockItem(1L, 2), new StockItem(2L, 1));
+
+        mockMvc.perform(post("/products/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk());
+
+        verify(stockService, times(1)).reserve(items);
+    }
+
+    @Test
+    @DisplayName("Should return 409 when stock is insufficient")
+    void testReserve_InsufficientStock() throws Exception {
+        doThrow(new InsufficientStockException(1L)).when(stockService).reserve(anyList());
+
+        mockMvc.perform(post("/products/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new StockItem(1L, 100)))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should release stock with status 200")
+    void testRelease_Success() throws Exception {
+        List<StockItem> items = List.of(new StockItem(1L, 2));
+
+        mockMvc.perform(post("/products/release")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk());
+
+        verify(stockService, times(1)).release(items);
+    }
+}
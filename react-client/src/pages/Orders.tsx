@@ -6,12 +6,13 @@ import ErrorAlert from '@/components/ErrorAlert';
 import LoadingSpinner from '@/components/LoadingSpinner';
 import { Tabs, TabsContent, TabsList, TabsTrigger } from '@/components/ui/tabs';
 import { ShoppingBag, Users } from 'lucide-react';
-import type { Order } from '@/types';
+import type { Order, OrderSummary } from '@/types';
 
 const Orders: React.FC = () => {
   const { isAuthenticated, isAdmin, login } = useAuth();
   const [myOrders, setMyOrders] = useState<Order[]>([]);
   const [allOrders, setAllOrders] = useState<Order[]>([]);
+  const [summary, setSummary] = useState<OrderSummary | null>(null);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<{ message: string; status?: number } | null>(null);
   const [activeTab, setActiveTab] = useState('my-orders');
@@ -27,8 +28,13 @@ const Orders: React.FC = () => {
     
     try {
       // Fetch my orders
-      const myOrdersData = await orderApi.getMyOrders();
+      // Les totaux du compte viennent du serveur, pas des commandes chargées
+      const [myOrdersData, summaryData] = await Promise.all([
+        orderApi.getMyOrders(),
+        orderApi.getMyOrdersSummary(),
+      ]);
       setMyOrders(myOrdersData);
+      setSummary(summaryData);
 
       // If admin, also fetch all orders
       if (isAdmin) {
@@ -83,6 +89,11 @@ const Orders: React.FC = () => {
         <p className="mt-1 text-muted-foreground">
           Consultez et gérez vos commandes
         </p>
+        {summary && (
+          <p className="mt-1 text-sm text-muted-foreground">
+            {summary.orderCount} commande(s) · {summary.totalSpent.toFixed(2)} € dépensés
+          </p>
+        )}
       </div>
 
       {isAdmin ? (
@@ -90,7 +101,7 @@ const Orders: React.FC = () => {
           <TabsList className="mb-6">
             <TabsTrigger value="my-orders" className="flex items-center gap-2">
               <ShoppingBag className="h-4 w-4" />
-              Mes commandes ({myOrders.length})
+              Mes commandes ({summary?.orderCount ?? myOrders.length})
             </TabsTrigger>
             <TabsTrigger value="all-orders" className="flex items-center gap-2">
               <Users className="h-4 w-4" />
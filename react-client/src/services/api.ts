@@ -1,5 +1,5 @@
 import keycloak from '@/lib/keycloak';
-import type { Product, Order, OrderLine } from '@/types';
+import type { Product, Order, OrderLine, OrderSummary } from '@/types';
 
 const API_BASE_URL = 'http://localhost:8888';
 
@@ -53,13 +53,31 @@ const handleResponse = async <T>(response: Response): Promise<T> => {
   }
 };
 
+// Les listes sont paginées côté serveur : on suit les liens rel="next" jusqu'à la dernière page.
+// Seule la query string du lien est reprise, l'hôte et le préfixe restent ceux de la passerelle.
+const PAGE_SIZE = 100;
+
+const nextQuery = (link: string | null): string | null => {
+  const match = link?.match(/<([^>]+)>\s*;\s*rel="next"/);
+  if (!match) return null;
+  return new URL(match[1], API_BASE_URL).search;
+};
+
+const fetchAllPages = async <T>(path: string): Promise<T[]> => {
+  const headers = await getAuthHeaders();
+  const items: T[] = [];
+  let query: string | null = `?size=${PAGE_SIZE}`;
+  while (query) {
+    const response = await fetch(`${API_BASE_URL}${path}${query}`, { headers });
+    items.push(...(await handleResponse<T[]>(response)));
+    query = nextQuery(response.headers.get('Link'));
+  }
+  return items;
+};
+
 // Product API
 export const productApi = {
-  getAll: async (): Promise<Product[]> => {
-    const headers = await getAuthHeaders();
-    const response = await fetch(`${API_BASE_URL}/product-service/products`, { headers });
-    return handleResponse<Product[]>(response);
-  },
+  getAll: async (): Promise<Product[]> => fetchAllPages<Product>('/product-service/products'),
 
   getById: async (id: number): Promise<Product> => {
     const headers = await getAuthHeaders();
@@ -99,16 +117,14 @@ export const productApi = {
 
 // Order API
 export const orderApi = {
-  getAll: async (): Promise<Order[]> => {
-    const headers = await getAuthHeaders();
-    const response = await fetch(`${API_BASE_URL}/order-service/orders`, { headers });
-    return handleResponse<Order[]>(response);
-  },
+  getAll: async (): Promise<Order[]> => fetchAllPages<Order>('/order-service/orders'),
+
+  getMyOrders: async (): Promise<Order[]> => fetchAllPages<Order>('/order-service/orders/myOrders'),
 
-  getMyOrders: async (): Promise<Order[]> => {
+  getMyOrdersSummary: async (): Promise<OrderSummary> => {
     const headers = await getAuthHeaders();
-    const response = await fetch(`${API_BASE_URL}/order-service/orders/myOrders`, { headers });
-    return handleResponse<Order[]>(response);
+    const response = await fetch(`${API_BASE_URL}/order-service/orders/myOrders/summary`, { headers });
+    return handleResponse<OrderSummary>(response);
   },
 
   getById: async (id: number): Promise<Order> => {
@@ -26,4 +26,11 @@ export interface Order {
   totalAmount?: number;
 }
 
+export interface OrderSummary {
+  userId: string;
+  orderCount: number;
+  totalSpent: number;
+  countByStatus: Record<OrderStatus, number>;
+}
+
 export type UserRole = 'admin' | 'client';